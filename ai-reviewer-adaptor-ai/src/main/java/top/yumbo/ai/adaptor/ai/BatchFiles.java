@@ -0,0 +1,173 @@
+package top.yumbo.ai.adaptor.ai;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.AIResponse;
+import top.yumbo.ai.api.model.BatchRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes the OpenAI batch JSONL format: one {@code {custom_id, method, url, body}}
+ * request per input line and one {@code {custom_id, response: {status_code, body}, error}}
+ * result per output line.
+ */
+@Slf4j
+final class BatchFiles {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private BatchFiles() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Write the requests as an input file; request bodies are streamed like on-demand calls
+     *
+     * @param url request path every line targets, e.g. "/v1/chat/completions"
+     */
+    static void writeRequests(Path file, List<BatchRequest> requests, AIConfig config, String url) throws IOException {
+        Set<String> customIds = new HashSet<>();
+        try (OutputStream out = Files.newOutputStream(file);
+             JsonGenerator generator = createLineGenerator(out)) {
+            for (BatchRequest request : requests) {
+                if (!customIds.add(request.getCustomId())) {
+                    throw new IllegalArgumentException("Duplicate batch custom id: " + request.getCustomId());
+                }
+                generator.writeStartObject();
+                generator.writeStringField("custom_id", request.getCustomId());
+                generator.writeStringField("method", "POST");
+                generator.writeStringField("url", url);
+                generator.writeFieldName("body");
+                new ChatRequestBody(request.getData(), config, false).writeJson(generator);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Generator writing one JSON object per line
+     */
+    static JsonGenerator createLineGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        // Lines are separated explicitly, not by the default space between root values
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    /**
+     * Write a successful result line in chat completion format
+     */
+    static void writeResult(JsonGenerator generator, String customId, AIResponse response) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("custom_id", customId);
+        generator.writeObjectFieldStart("response");
+        generator.writeNumberField("status_code", 200);
+        generator.writeObjectFieldStart("body");
+        generator.writeStringField("model", response.getModel());
+        generator.writeArrayFieldStart("choices");
+        generator.writeStartObject();
+        generator.writeNumberField("index", 0);
+        generator.writeObjectFieldStart("message");
+        generator.writeStringField("role", "assistant");
+        generator.writeStringField("content", response.getContent());
+        generator.writeEndObject();
+        generator.writeStringField("finish_reason", response.getStopReason());
+        generator.writeEndObject();
+        generator.writeEndArray();
+        AIResponse.TokenUsage usage = response.getTokenUsage();
+        if (usage != null) {
+            generator.writeObjectFieldStart("usage");
+            generator.writeNumberField("prompt_tokens", valueOf(usage.getInputTokens()));
+            generator.writeNumberField("completion_tokens", valueOf(usage.getOutputTokens()));
+            generator.writeNumberField("total_tokens", valueOf(usage.getInputTokens()) + valueOf(usage.getOutputTokens()));
+            if (usage.getCacheRInputTokens() != null) {
+                generator.writeObjectFieldStart("prompt_tokens_details");
+                generator.writeNumberField("cached_tokens", usage.getCacheRInputTokens());
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeNullField("error");
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Write a failed result line
+     */
+    static void writeError(JsonGenerator generator, String customId, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("custom_id", customId);
+        generator.writeNullField("response");
+        generator.writeObjectFieldStart("error");
+        generator.writeStringField("code", "request_failed");
+        generator.writeStringField("message", message);
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Read an output file; failed lines are logged and left out
+     *
+     * @return responses by custom id, in file order
+     */
+    static Map<String, AIResponse> readResults(InputStream in, String provider, ObjectMapper objectMapper) throws IOException {
+        Map<String, AIResponse> results = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            String customId = node.path("custom_id").asText(null);
+            JsonNode response = node.path("response");
+            if (customId == null || response.path("status_code").asInt() != 200) {
+                log.warn("Batch request {} failed: {}", customId,
+                        node.path("error").isObject() ? node.get("error").path("message").asText() : response.path("body"));
+                continue;
+            }
+            JsonNode body = response.path("body");
+            JsonNode choice = body.path("choices").path(0);
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("batchCustomId", customId);
+            results.put(customId, AIResponse.builder()
+                    .content(choice.path("message").path("content").asText(""))
+                    .model(body.path("model").asText(null))
+                    .provider(provider)
+                    .timestamp(LocalDateTime.now())
+                    .tokenUsage(body.path("usage").isObject() ? HttpBasedAIAdapter.parseTokenUsage(body.get("usage")) : null)
+                    .stopReason(choice.path("finish_reason").asText(null))
+                    .metadata(metadata)
+                    .build());
+        }
+        return results;
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,188 @@
+package top.yumbo.ai.adaptor.ai;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.PreProcessedData;
+import top.yumbo.ai.common.util.PromptUtil;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chat completion request body that streams its JSON straight into the OkHttp sink.
+ * The user prompt template is spliced around the project content while writing, so the
+ * joined prompt, the serialized JSON string and its byte copy are never materialized;
+ * released content is streamed from its handle, e.g. straight out of an off-heap arena.
+ */
+public class ChatRequestBody extends RequestBody {
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final PreProcessedData data;
+    private final AIConfig config;
+    private final boolean stream;
+
+    public ChatRequestBody(PreProcessedData data, AIConfig config, boolean stream) {
+        this.data = data;
+        this.config = config;
+        this.stream = stream;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    /**
+     * Unknown up front; the body is sent with chunked transfer encoding
+     */
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(sink.outputStream(), JsonEncoding.UTF8)) {
+            // The sink belongs to OkHttp, closing the generator only flushes it
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writeJson(generator);
+        }
+    }
+
+    /**
+     * Write the request object with the given generator, e.g. as the body of a batch request line
+     */
+    void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("model", config.getModel());
+        if (config.getTemperature() != null) {
+            generator.writeNumberField("temperature", config.getTemperature());
+        }
+        if (config.getMaxTokens() != null) {
+            generator.writeNumberField("max_tokens", config.getMaxTokens());
+        }
+        if (stream) {
+            generator.writeBooleanField("stream", true);
+            // Ask for a final chunk carrying token usage
+            generator.writeObjectFieldStart("stream_options");
+            generator.writeBooleanField("include_usage", true);
+            generator.writeEndObject();
+        }
+        generator.writeArrayFieldStart("messages");
+        writeSystemMessage(generator);
+        writeUserMessage(generator);
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeSystemMessage(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("role", "system");
+        generator.writeStringField("content", config.getSysPrompt());
+        generator.writeEndObject();
+    }
+
+    private void writeUserMessage(JsonGenerator generator) throws IOException {
+        String template = config.getUserPrompt();
+        int placeholder = template.indexOf(PromptUtil.PLACEHOLDER);
+        generator.writeStartObject();
+        generator.writeStringField("role", "user");
+        if (Boolean.TRUE.equals(config.getPromptCaching()) && placeholder >= 0) {
+            // Static rubric prefix first, marked cacheable; project content last
+            generator.writeArrayFieldStart("content");
+            generator.writeStartObject();
+            generator.writeStringField("type", "text");
+            generator.writeStringField("text", template.substring(0, placeholder));
+            generator.writeObjectFieldStart("cache_control");
+            generator.writeStringField("type", "ephemeral");
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeStartObject();
+            generator.writeStringField("type", "text");
+            generator.writeFieldName("text");
+            writeSpliced(generator, template.substring(placeholder));
+            generator.writeEndObject();
+            generator.writeEndArray();
+        } else {
+            // Same result as PromptUtil.format, written piece by piece
+            generator.writeFieldName("content");
+            writeSpliced(generator, template);
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the template as a string value with the content in place of every placeholder
+     */
+    private void writeSpliced(JsonGenerator generator, String template) throws IOException {
+        List<Object> segments = new ArrayList<>();
+        int from = 0;
+        int index;
+        while ((index = template.indexOf(PromptUtil.PLACEHOLDER, from)) >= 0) {
+            segments.add(template.substring(from, index));
+            segments.add(data.openContentReader());
+            from = index + PromptUtil.PLACEHOLDER.length();
+        }
+        segments.add(template.substring(from));
+        try (SegmentReader reader = new SegmentReader(segments)) {
+            generator.writeString(reader, -1);
+        }
+    }
+
+    /**
+     * Reader over a sequence of strings and readers; strings are copied directly into the caller's buffer
+     */
+    private static class SegmentReader extends Reader {
+        private final List<Object> segments;
+        private int segment;
+        private int offset;
+
+        private SegmentReader(List<Object> segments) {
+            this.segments = segments;
+        }
+
+        @Override
+        public int read(char[] buffer, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (segment < segments.size()) {
+                Object current = segments.get(segment);
+                if (current instanceof String text) {
+                    int remaining = text.length() - offset;
+                    if (remaining > 0) {
+                        int count = Math.min(len, remaining);
+                        text.getChars(offset, offset + count, buffer, off);
+                        offset += count;
+                        return count;
+                    }
+                } else {
+                    int count = ((Reader) current).read(buffer, off, len);
+                    if (count > 0) {
+                        return count;
+                    }
+                }
+                segment++;
+                offset = 0;
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Object current : segments) {
+                if (current instanceof Reader reader) {
+                    reader.close();
+                }
+            }
+        }
+    }
+}
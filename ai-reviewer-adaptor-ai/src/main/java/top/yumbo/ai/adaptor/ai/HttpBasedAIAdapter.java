@@ -4,7 +4,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okio.BufferedSource;
 import top.yumbo.ai.api.ai.IAIService;
+import top.yumbo.ai.api.ai.IStreamListener;
 import top.yumbo.ai.api.model.AIConfig;
 import top.yumbo.ai.api.model.AIResponse;
 import top.yumbo.ai.api.model.PreProcessedData;
@@ -14,7 +16,8 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * HttpBasedAI service adapter
@@ -22,60 +25,33 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class HttpBasedAIAdapter implements IAIService {
     private static final String DEFAULT_ENDPOINT = "https://api.openai.com/v1/chat/completions";
-    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final AIConfig config;
 
     public HttpBasedAIAdapter(AIConfig config) {
         this.config = config;
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(60, TimeUnit.SECONDS)
-                .writeTimeout(60, TimeUnit.SECONDS)
-                .build();
+        this.httpClient = OkHttpClientFactory.getClient(config);
         this.objectMapper = new ObjectMapper();
     }
 
     @Override
     public AIResponse invoke(PreProcessedData data, AIConfig config) throws Exception {
+        if (Boolean.TRUE.equals(config.getStream())) {
+            return invokeStream(data, config, null);
+        }
         log.info("Invoking HttpBasedAI with model: {}", config.getModel());
         long startTime = System.currentTimeMillis();
         try {
             // Build request payload
-            Map<String, Object> requestBody = buildRequestBody(data, config);
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-            // Build HTTP request
-            Request request = new Request.Builder()
-                    .url(config.getEndpoint() != null ? config.getEndpoint() : DEFAULT_ENDPOINT)
-                    .header("Authorization", "Bearer " + config.getApiKey())
-                    .header("Content-Type", "application/json")
-                    .post(RequestBody.create(jsonBody, JSON))
-                    .build();
+            Request request = buildHttpRequest(new ChatRequestBody(data, config, false), config);
             // Execute request
             try (Response response = httpClient.newCall(request).execute()) {
                 if (!response.isSuccessful()) {
-                    throw new AIServiceException("AI API call failed: " + response.code() + " - " + response.message());
+                    throw new AIServiceException("AI API call failed: " + response.code() + " - " + response.message(),
+                            response.code());
                 }
-                String responseBody = response.body().string();
-                JsonNode jsonResponse = objectMapper.readTree(responseBody);
-                // Parse response
-                String content = jsonResponse.get("choices").get(0).get("message").get("content").asText();
-                JsonNode usage = jsonResponse.get("usage");
-                AIResponse.TokenUsage tokenUsage = AIResponse.TokenUsage.builder()
-                        .promptTokens(usage.get("prompt_tokens").asInt())
-                        .completionTokens(usage.get("completion_tokens").asInt())
-                        .totalTokens(usage.get("total_tokens").asInt())
-                        .build();
-                long processingTime = System.currentTimeMillis() - startTime;
-                return AIResponse.builder()
-                        .content(content)
-                        .model(config.getModel())
-                        .provider(getProviderName())
-                        .processingTimeMs(processingTime)
-                        .timestamp(LocalDateTime.now())
-                        .tokenUsage(tokenUsage)
-                        .build();
+                return parseResponse(response, config, startTime);
             }
         } catch (IOException e) {
             log.error("HttpBasedAI API call failed", e);
@@ -83,6 +59,150 @@ public class HttpBasedAIAdapter implements IAIService {
         }
     }
 
+    /**
+     * Non-blocking invocation on OkHttp's dispatcher; cancelling the future cancels the call.
+     * Streaming mode falls back to running the blocking stream reader on the executor.
+     */
+    @Override
+    public CompletableFuture<AIResponse> invokeAsync(PreProcessedData data, AIConfig config, Executor executor) {
+        if (Boolean.TRUE.equals(config.getStream())) {
+            return IAIService.super.invokeAsync(data, config, executor);
+        }
+        log.info("Invoking HttpBasedAI asynchronously with model: {}", config.getModel());
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<AIResponse> future = new CompletableFuture<>();
+        Call call = httpClient.newCall(buildHttpRequest(new ChatRequestBody(data, config, false), config));
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                log.error("HttpBasedAI API call failed", e);
+                future.completeExceptionally(new AIServiceException("HttpBasedAI invocation error", e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    if (!response.isSuccessful()) {
+                        throw new AIServiceException("AI API call failed: " + response.code() + " - " + response.message(),
+                                response.code());
+                    }
+                    future.complete(parseResponse(response, config, startTime));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        future.whenComplete((ignored, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    private AIResponse parseResponse(Response response, AIConfig config, long startTime) throws IOException {
+        // Parse straight from the body stream instead of buffering it as a String first
+        JsonNode jsonResponse = objectMapper.readTree(response.body().byteStream());
+        // Parse response
+        String content = jsonResponse.get("choices").get(0).get("message").get("content").asText();
+        JsonNode usage = jsonResponse.get("usage");
+        AIResponse.TokenUsage tokenUsage = parseTokenUsage(usage);
+        long processingTime = System.currentTimeMillis() - startTime;
+        if (log.isDebugEnabled()) {
+            log.debug("HTTP client pools: {}", OkHttpClientFactory.metrics());
+        }
+        return AIResponse.builder()
+                .content(content)
+                .model(config.getModel())
+                .provider(getProviderName())
+                .processingTimeMs(processingTime)
+                .timestamp(LocalDateTime.now())
+                .tokenUsage(tokenUsage)
+                .build();
+    }
+
+    @Override
+    public AIResponse invokeStream(PreProcessedData data, AIConfig config, IStreamListener listener) throws Exception {
+        log.info("Invoking HttpBasedAI (streaming) with model: {}", config.getModel());
+        long startTime = System.currentTimeMillis();
+        Request request = buildHttpRequest(new ChatRequestBody(data, config, true), config).newBuilder()
+                .header("Accept", "text/event-stream")
+                .build();
+        Call call = httpClient.newCall(request);
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful()) {
+                throw new AIServiceException("AI API call failed: " + response.code() + " - " + response.message(),
+                        response.code());
+            }
+            StringBuilder content = new StringBuilder();
+            Long timeToFirstTokenMs = null;
+            String stopReason = null;
+            AIResponse.TokenUsage tokenUsage = null;
+            BufferedSource source = response.body().source();
+            String line;
+            while ((line = source.readUtf8Line()) != null) {
+                // Skip blank separators, comments and event names; only data lines carry chunks
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String payload = line.substring(5).trim();
+                if ("[DONE]".equals(payload)) {
+                    break;
+                }
+                if (payload.isEmpty()) {
+                    continue;
+                }
+                JsonNode chunk = objectMapper.readTree(payload);
+                JsonNode choice = chunk.path("choices").path(0);
+                JsonNode delta = choice.path("delta").path("content");
+                if (delta.isTextual() && !delta.asText().isEmpty()) {
+                    if (timeToFirstTokenMs == null) {
+                        timeToFirstTokenMs = System.currentTimeMillis() - startTime;
+                        log.info("First token after {} ms", timeToFirstTokenMs);
+                    }
+                    content.append(delta.asText());
+                    if (listener != null && !listener.onDelta(delta.asText())) {
+                        log.info("Stream cancelled by listener after {} chars", content.length());
+                        call.cancel();
+                        stopReason = "cancelled";
+                        break;
+                    }
+                }
+                if (choice.path("finish_reason").isTextual()) {
+                    stopReason = choice.get("finish_reason").asText();
+                }
+                if (chunk.path("usage").isObject()) {
+                    tokenUsage = parseTokenUsage(chunk.get("usage"));
+                }
+            }
+            Map<String, Object> metadata = new HashMap<>();
+            if (timeToFirstTokenMs != null) {
+                metadata.put(IStreamListener.METADATA_TIME_TO_FIRST_TOKEN_MS, timeToFirstTokenMs);
+            }
+            return AIResponse.builder()
+                    .content(content.toString())
+                    .model(config.getModel())
+                    .provider(getProviderName())
+                    .processingTimeMs(System.currentTimeMillis() - startTime)
+                    .timestamp(LocalDateTime.now())
+                    .tokenUsage(tokenUsage)
+                    .stopReason(stopReason)
+                    .metadata(metadata)
+                    .build();
+        } catch (IOException e) {
+            if (call.isCanceled()) {
+                throw new AIServiceException("HttpBasedAI stream cancelled", e);
+            }
+            log.error("HttpBasedAI streaming call failed", e);
+            throw new AIServiceException("HttpBasedAI streaming error", e);
+        }
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return true;
+    }
+
     @Override
     public boolean isAvailable() {
         // Could implement a health check here
@@ -99,24 +219,38 @@ public class HttpBasedAIAdapter implements IAIService {
         return new String[]{"please refer " + config.getProvider() + " official documentation for supported models"};
     }
 
-    private Map<String, Object> buildRequestBody(PreProcessedData data, AIConfig config) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", config.getModel());
-        requestBody.put("temperature", config.getTemperature());
-        requestBody.put("max_tokens", config.getMaxTokens());
-        // Build messages
-        Map<String, String> systemMessage = new HashMap<>();
-        systemMessage.put("role", "system");
-        systemMessage.put("content", config.getSysPrompt());
-        Map<String, String> userMessage = new HashMap<>();
-        userMessage.put("role", "user");
-        System.out.println(data.getMetadata());
-        System.out.println(config.getUserPrompt());
-        System.out.println(data.getContent());
-        // 使用 replace 而不是 String.format 避免提示词中的特殊字符（如 '+', '%'）被误认为格式化标志
-        String formattedPrompt = config.getUserPrompt().replace("%s", data.getContent());
-        userMessage.put("content", formattedPrompt);
-        requestBody.put("messages", new Map[]{systemMessage, userMessage});
-        return requestBody;
+    /**
+     * Parse token usage, including prompt cache counters reported by OpenAI
+     * (prompt_tokens_details.cached_tokens), DeepSeek (prompt_cache_hit_tokens / prompt_cache_miss_tokens)
+     * and Anthropic-compatible endpoints (cache_creation_input_tokens / cache_read_input_tokens)
+     */
+    static AIResponse.TokenUsage parseTokenUsage(JsonNode usage) {
+        AIResponse.TokenUsage tokenUsage = AIResponse.TokenUsage.builder()
+                .promptTokens(usage.path("prompt_tokens").asInt())
+                .completionTokens(usage.path("completion_tokens").asInt())
+                .totalTokens(usage.path("total_tokens").asInt())
+                .inputTokens(usage.path("prompt_tokens").asInt())
+                .outputTokens(usage.path("completion_tokens").asInt())
+                .build();
+        if (usage.has("cache_read_input_tokens")) {
+            tokenUsage.setCacheRInputTokens(usage.get("cache_read_input_tokens").asInt());
+        } else if (usage.has("prompt_cache_hit_tokens")) {
+            tokenUsage.setCacheRInputTokens(usage.get("prompt_cache_hit_tokens").asInt());
+        } else if (usage.path("prompt_tokens_details").has("cached_tokens")) {
+            tokenUsage.setCacheRInputTokens(usage.get("prompt_tokens_details").get("cached_tokens").asInt());
+        }
+        if (usage.has("cache_creation_input_tokens")) {
+            tokenUsage.setCacheCreationInputTokens(usage.get("cache_creation_input_tokens").asInt());
+        }
+        return tokenUsage;
+    }
+
+    private Request buildHttpRequest(RequestBody body, AIConfig config) {
+        return new Request.Builder()
+                .url(config.getEndpoint() != null ? config.getEndpoint() : DEFAULT_ENDPOINT)
+                .header("Authorization", "Bearer " + config.getApiKey())
+                .header("Content-Type", "application/json")
+                .post(body)
+                .build();
     }
 }
@@ -0,0 +1,243 @@
+package top.yumbo.ai.adaptor.ai;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import top.yumbo.ai.api.ai.IAIService;
+import top.yumbo.ai.api.ai.IBatchAIService;
+import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.AIResponse;
+import top.yumbo.ai.api.model.BatchJob;
+import top.yumbo.ai.api.model.BatchRequest;
+import top.yumbo.ai.common.exception.AIServiceException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * File-based stand-in for a provider batch API.
+ * Each job gets a directory holding its input and output files in the OpenAI batch JSONL
+ * format; requests are run in the background through an on-demand {@link IAIService}.
+ * For providers without a batch API.
+ */
+@Slf4j
+public class LocalBatchAIService implements IBatchAIService {
+    public static final String PROVIDER_NAME = "local";
+    private static final String INPUT_FILE = "input.jsonl";
+    private static final String OUTPUT_FILE = "output.jsonl";
+    private static final String REQUEST_URL = "/v1/chat/completions";
+
+    private final Path workDirectory;
+    private final IAIService delegate;
+    private final ExecutorService executor;
+    /**
+     * Starts jobs: opens their output and dispatches their requests without waiting for them
+     */
+    private final ExecutorService jobExecutor;
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+    /**
+     * In-flight requests of each running job, cancelled with the job
+     */
+    private final Map<String, List<CompletableFuture<AIResponse>>> jobCalls = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * @param workDirectory directory for job files
+     * @param delegate      service running the individual requests
+     * @param concurrency   number of requests run at the same time
+     */
+    public LocalBatchAIService(Path workDirectory, IAIService delegate, int concurrency) {
+        this.workDirectory = workDirectory;
+        this.delegate = delegate;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "local-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "local-batch-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public BatchJob submit(List<BatchRequest> requests, AIConfig config) throws Exception {
+        String jobId = "batch_local_" + UUID.randomUUID().toString().replace("-", "");
+        Path jobDirectory = Files.createDirectories(workDirectory.resolve(jobId));
+        BatchFiles.writeRequests(jobDirectory.resolve(INPUT_FILE), requests, config, REQUEST_URL);
+        BatchJob job = BatchJob.builder()
+                .jobId(jobId)
+                .provider(PROVIDER_NAME)
+                .status(BatchJob.Status.IN_PROGRESS)
+                .totalRequests(requests.size())
+                .submittedAt(LocalDateTime.now())
+                .build();
+        jobs.put(jobId, job);
+        jobExecutor.execute(() -> run(job, jobDirectory.resolve(OUTPUT_FILE), requests, config));
+        log.info("Submitted local batch job {} with {} requests in {}", jobId, requests.size(), jobDirectory);
+        return copyOf(job);
+    }
+
+    @Override
+    public BatchJob getJob(String jobId, AIConfig config) throws Exception {
+        BatchJob job = jobs.get(jobId);
+        if (job != null) {
+            synchronized (job) {
+                return copyOf(job);
+            }
+        }
+        // Job of an earlier run: finished if its output exists
+        Path outputFile = workDirectory.resolve(jobId).resolve(OUTPUT_FILE);
+        if (!Files.isRegularFile(outputFile)) {
+            throw new AIServiceException("Unknown local batch job: " + jobId);
+        }
+        return BatchJob.builder()
+                .jobId(jobId)
+                .provider(PROVIDER_NAME)
+                .status(BatchJob.Status.COMPLETED)
+                .outputLocation(outputFile.toString())
+                .build();
+    }
+
+    @Override
+    public Map<String, AIResponse> getResults(BatchJob job, AIConfig config) throws Exception {
+        try (InputStream in = Files.newInputStream(Path.of(job.getOutputLocation()))) {
+            return BatchFiles.readResults(in, delegate.getProviderName(), objectMapper);
+        }
+    }
+
+    @Override
+    public void cancel(String jobId, AIConfig config) {
+        BatchJob job = jobs.get(jobId);
+        if (job != null) {
+            synchronized (job) {
+                if (!job.getStatus().isTerminal()) {
+                    job.setStatus(BatchJob.Status.CANCELLED);
+                }
+            }
+            cancelCalls(jobId);
+        }
+    }
+
+    @Override
+    public String getProviderName() {
+        return PROVIDER_NAME;
+    }
+
+    private void run(BatchJob job, Path outputFile, List<BatchRequest> requests, AIConfig config) {
+        OutputStream out;
+        JsonGenerator generator;
+        try {
+            out = Files.newOutputStream(outputFile);
+            generator = BatchFiles.createLineGenerator(out);
+        } catch (IOException e) {
+            fail(job, e);
+            return;
+        }
+        List<CompletableFuture<AIResponse>> calls = new ArrayList<>();
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (BatchRequest request : requests) {
+            CompletableFuture<AIResponse> call = delegate.invokeAsync(request.getData(), config, executor);
+            calls.add(call);
+            written.add(call.handle((response, error) -> {
+                write(job, generator, request.getCustomId(), response, error);
+                return null;
+            }));
+        }
+        jobCalls.put(job.getJobId(), calls);
+        synchronized (job) {
+            // Cancelled while its requests were being dispatched
+            if (job.getStatus() == BatchJob.Status.CANCELLED) {
+                cancelCalls(job.getJobId());
+            }
+        }
+        // Completed on the thread of the last request; no thread waits for the job
+        CompletableFuture.allOf(written.toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, error) -> finish(job, outputFile, out, generator));
+    }
+
+    private void finish(BatchJob job, Path outputFile, OutputStream out, JsonGenerator generator) {
+        jobCalls.remove(job.getJobId());
+        try (out; generator) {
+            generator.flush();
+        } catch (IOException e) {
+            fail(job, e);
+            return;
+        }
+        synchronized (job) {
+            // Like provider batches, a cancelled job still exposes the outputs written so far
+            if (job.getStatus() != BatchJob.Status.CANCELLED) {
+                job.setStatus(BatchJob.Status.COMPLETED);
+            }
+            job.setOutputLocation(outputFile.toString());
+        }
+        log.info("Local batch job {} finished: {} completed, {} failed", job.getJobId(),
+                job.getCompletedRequests(), job.getFailedRequests());
+    }
+
+    private void fail(BatchJob job, IOException e) {
+        log.error("Local batch job {} failed", job.getJobId(), e);
+        synchronized (job) {
+            job.setStatus(BatchJob.Status.FAILED);
+            job.setErrorMessage(e.getMessage());
+        }
+    }
+
+    private void cancelCalls(String jobId) {
+        List<CompletableFuture<AIResponse>> calls = jobCalls.remove(jobId);
+        if (calls != null) {
+            log.info("Cancelling {} requests of local batch job {}", calls.stream().filter(call -> !call.isDone()).count(), jobId);
+            calls.forEach(call -> call.cancel(true));
+        }
+    }
+
+    private void write(BatchJob job, JsonGenerator generator, String customId, AIResponse response, Throwable error) {
+        synchronized (job) {
+            try {
+                if (job.getStatus() == BatchJob.Status.CANCELLED) {
+                    return;
+                }
+                if (error == null && response != null) {
+                    BatchFiles.writeResult(generator, customId, response);
+                    job.setCompletedRequests(job.getCompletedRequests() + 1);
+                } else {
+                    String message = error != null ? error.getMessage() : "empty response";
+                    log.warn("Local batch request {} failed: {}", customId, message);
+                    BatchFiles.writeError(generator, customId, message);
+                    job.setFailedRequests(job.getFailedRequests() + 1);
+                }
+                generator.flush();
+            } catch (IOException e) {
+                log.error("Failed to write result of local batch request {}", customId, e);
+                job.setFailedRequests(job.getFailedRequests() + 1);
+            }
+        }
+    }
+
+    private static BatchJob copyOf(BatchJob job) {
+        return BatchJob.builder()
+                .jobId(job.getJobId())
+                .provider(job.getProvider())
+                .status(job.getStatus())
+                .totalRequests(job.getTotalRequests())
+                .completedRequests(job.getCompletedRequests())
+                .failedRequests(job.getFailedRequests())
+                .outputLocation(job.getOutputLocation())
+                .errorMessage(job.getErrorMessage())
+                .submittedAt(job.getSubmittedAt())
+                .build();
+    }
+}
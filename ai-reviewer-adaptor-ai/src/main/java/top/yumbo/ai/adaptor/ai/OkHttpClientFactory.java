@@ -0,0 +1,140 @@
+package top.yumbo.ai.adaptor.ai;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.HttpClientConfig;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory for shared OkHttp clients.
+ * Adapters with the same pool settings share one connection pool and dispatcher, so
+ * connections (and HTTP/2 streams) are reused across adapters and the concurrency limits
+ * apply once per process instead of once per adapter.
+ */
+@Slf4j
+public final class OkHttpClientFactory {
+    private static final int DEFAULT_TIMEOUT_SECONDS = 60;
+    private static final Map<String, OkHttpClient> SHARED = new ConcurrentHashMap<>();
+
+    private OkHttpClientFactory() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Get a client for the given configuration.
+     * The returned client shares its pool and dispatcher with every client of the same pool settings;
+     * timeouts and request compression are applied per configuration.
+     */
+    public static OkHttpClient getClient(AIConfig config) {
+        HttpClientConfig http = config.getHttp() != null ? config.getHttp() : new HttpClientConfig();
+        OkHttpClient shared = SHARED.computeIfAbsent(poolKey(http), key -> createShared(http));
+        int timeoutSeconds = config.getTimeoutSeconds() != null ? config.getTimeoutSeconds() : DEFAULT_TIMEOUT_SECONDS;
+        OkHttpClient.Builder builder = shared.newBuilder()
+                .connectTimeout(30, TimeUnit.SECONDS)
+                .readTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .writeTimeout(timeoutSeconds, TimeUnit.SECONDS);
+        if (Boolean.TRUE.equals(http.getGzipRequests())) {
+            builder.addInterceptor(new GzipRequestInterceptor());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Pool and dispatcher metrics for every shared client
+     *
+     * @return metrics by pool settings key
+     */
+    public static Map<String, Map<String, Integer>> metrics() {
+        Map<String, Map<String, Integer>> metrics = new LinkedHashMap<>();
+        SHARED.forEach((key, client) -> {
+            Map<String, Integer> values = new LinkedHashMap<>();
+            values.put("connections", client.connectionPool().connectionCount());
+            values.put("idleConnections", client.connectionPool().idleConnectionCount());
+            values.put("runningCalls", client.dispatcher().runningCallsCount());
+            values.put("queuedCalls", client.dispatcher().queuedCallsCount());
+            metrics.put(key, values);
+        });
+        return metrics;
+    }
+
+    private static OkHttpClient createShared(HttpClientConfig http) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(http.maxRequestsOrDefault());
+        dispatcher.setMaxRequestsPerHost(http.maxRequestsPerHostOrDefault());
+        ConnectionPool pool = new ConnectionPool(http.maxIdleConnectionsOrDefault(),
+                http.keepAliveSecondsOrDefault(), TimeUnit.SECONDS);
+        List<Protocol> protocols = Boolean.FALSE.equals(http.getHttp2())
+                ? List.of(Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_2, Protocol.HTTP_1_1);
+        log.info("Creating shared HTTP client: {}", poolKey(http));
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(pool)
+                .protocols(protocols)
+                .build();
+    }
+
+    private static String poolKey(HttpClientConfig http) {
+        return "maxRequests=" + http.maxRequestsOrDefault()
+                + ",perHost=" + http.maxRequestsPerHostOrDefault()
+                + ",idle=" + http.maxIdleConnectionsOrDefault()
+                + ",keepAlive=" + http.keepAliveSecondsOrDefault() + "s"
+                + ",http2=" + !Boolean.FALSE.equals(http.getHttp2());
+    }
+
+    /**
+     * Compresses request bodies with gzip and marks them with Content-Encoding
+     */
+    private static class GzipRequestInterceptor implements Interceptor {
+        @Override
+        public okhttp3.Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            RequestBody body = request.body();
+            if (body == null || request.header("Content-Encoding") != null) {
+                return chain.proceed(request);
+            }
+            return chain.proceed(request.newBuilder()
+                    .header("Content-Encoding", "gzip")
+                    .method(request.method(), gzip(body))
+                    .build());
+        }
+
+        private RequestBody gzip(RequestBody body) {
+            return new RequestBody() {
+                @Override
+                public MediaType contentType() {
+                    return body.contentType();
+                }
+
+                @Override
+                public long contentLength() {
+                    return -1;
+                }
+
+                @Override
+                public void writeTo(BufferedSink sink) throws IOException {
+                    try (BufferedSink gzipSink = Okio.buffer(new GzipSink(sink))) {
+                        body.writeTo(gzipSink);
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package top.yumbo.ai.adaptor.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import top.yumbo.ai.api.ai.IBatchAIService;
+import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.AIResponse;
+import top.yumbo.ai.api.model.BatchJob;
+import top.yumbo.ai.api.model.BatchRequest;
+import top.yumbo.ai.common.exception.AIServiceException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch adapter for OpenAI-compatible batch APIs (/files + /batches).
+ * Requests are written to a JSONL file, uploaded and submitted as one job with a 24h
+ * completion window; outputs are downloaded from the job's output file.
+ */
+@Slf4j
+public class OpenAIBatchAdapter implements IBatchAIService {
+    private static final String DEFAULT_BASE_URL = "https://api.openai.com/v1";
+    private static final String CHAT_COMPLETIONS_PATH = "/chat/completions";
+    private static final String COMPLETION_WINDOW = "24h";
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final MediaType JSONL = MediaType.get("application/jsonl");
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final AIConfig config;
+
+    public OpenAIBatchAdapter(AIConfig config) {
+        this.config = config;
+        this.httpClient = OkHttpClientFactory.getClient(config);
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @Override
+    public BatchJob submit(List<BatchRequest> requests, AIConfig config) throws Exception {
+        String baseUrl = baseUrl(config);
+        Path inputFile = Files.createTempFile("batch-input-", ".jsonl");
+        try {
+            BatchFiles.writeRequests(inputFile, requests, config, HttpUrl.get(baseUrl + CHAT_COMPLETIONS_PATH).encodedPath());
+            log.info("Uploading batch input with {} requests ({} bytes)", requests.size(), Files.size(inputFile));
+            RequestBody upload = new MultipartBody.Builder()
+                    .setType(MultipartBody.FORM)
+                    .addFormDataPart("purpose", "batch")
+                    .addFormDataPart("file", inputFile.getFileName().toString(),
+                            RequestBody.create(inputFile.toFile(), JSONL))
+                    .build();
+            String inputFileId = call(request(baseUrl + "/files", config).post(upload).build())
+                    .get("id").asText();
+
+            ObjectNode body = objectMapper.createObjectNode();
+            body.put("input_file_id", inputFileId);
+            body.put("endpoint", HttpUrl.get(baseUrl + CHAT_COMPLETIONS_PATH).encodedPath());
+            body.put("completion_window", COMPLETION_WINDOW);
+            BatchJob job = toJob(call(request(baseUrl + "/batches", config)
+                    .post(RequestBody.create(objectMapper.writeValueAsBytes(body), JSON))
+                    .build()));
+            job.setTotalRequests(requests.size());
+            log.info("Submitted batch job {} with {} requests", job.getJobId(), requests.size());
+            return job;
+        } finally {
+            Files.deleteIfExists(inputFile);
+        }
+    }
+
+    @Override
+    public BatchJob getJob(String jobId, AIConfig config) throws Exception {
+        BatchJob job = toJob(call(request(baseUrl(config) + "/batches/" + jobId, config).get().build()));
+        log.debug("Batch job {}: {} ({}/{} completed, {} failed)", jobId, job.getStatus(),
+                job.getCompletedRequests(), job.getTotalRequests(), job.getFailedRequests());
+        return job;
+    }
+
+    @Override
+    public Map<String, AIResponse> getResults(BatchJob job, AIConfig config) throws Exception {
+        Request request = request(baseUrl(config) + "/files/" + job.getOutputLocation() + "/content", config)
+                .get().build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new AIServiceException("Batch output download failed: " + response.code() + " - " + response.message());
+            }
+            Map<String, AIResponse> results = BatchFiles.readResults(response.body().byteStream(),
+                    getProviderName(), objectMapper);
+            log.info("Fetched {} results of batch job {}", results.size(), job.getJobId());
+            return results;
+        }
+    }
+
+    @Override
+    public void cancel(String jobId, AIConfig config) throws Exception {
+        call(request(baseUrl(config) + "/batches/" + jobId + "/cancel", config)
+                .post(RequestBody.create(new byte[0], JSON))
+                .build());
+        log.info("Cancelled batch job {}", jobId);
+    }
+
+    @Override
+    public String getProviderName() {
+        return config.getProvider();
+    }
+
+    private JsonNode call(Request request) throws IOException {
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new AIServiceException("Batch API call failed: " + response.code() + " - " + response.message());
+            }
+            return objectMapper.readTree(response.body().byteStream());
+        }
+    }
+
+    private Request.Builder request(String url, AIConfig config) {
+        return new Request.Builder()
+                .url(url)
+                .header("Authorization", "Bearer " + config.getApiKey());
+    }
+
+    /**
+     * API base URL, derived from the chat completions endpoint
+     */
+    private String baseUrl(AIConfig config) {
+        String endpoint = config.getEndpoint();
+        if (endpoint == null || endpoint.isBlank()) {
+            return DEFAULT_BASE_URL;
+        }
+        if (endpoint.endsWith("/")) {
+            endpoint = endpoint.substring(0, endpoint.length() - 1);
+        }
+        return endpoint.endsWith(CHAT_COMPLETIONS_PATH)
+                ? endpoint.substring(0, endpoint.length() - CHAT_COMPLETIONS_PATH.length())
+                : endpoint;
+    }
+
+    private BatchJob toJob(JsonNode node) {
+        JsonNode counts = node.path("request_counts");
+        JsonNode errors = node.path("errors").path("data");
+        return BatchJob.builder()
+                .jobId(node.path("id").asText())
+                .provider(getProviderName())
+                .status(toStatus(node.path("status").asText()))
+                .totalRequests(counts.path("total").asInt())
+                .completedRequests(counts.path("completed").asInt())
+                .failedRequests(counts.path("failed").asInt())
+                .outputLocation(node.path("output_file_id").asText(null))
+                .errorMessage(errors.isArray() && errors.size() > 0 ? errors.get(0).path("message").asText() : null)
+                .submittedAt(node.has("created_at")
+                        ? LocalDateTime.ofInstant(Instant.ofEpochSecond(node.get("created_at").asLong()), ZoneId.systemDefault())
+                        : LocalDateTime.now())
+                .build();
+    }
+
+    private static BatchJob.Status toStatus(String status) {
+        return switch (status) {
+            case "validating" -> BatchJob.Status.VALIDATING;
+            case "completed" -> BatchJob.Status.COMPLETED;
+            case "failed" -> BatchJob.Status.FAILED;
+            case "expired" -> BatchJob.Status.EXPIRED;
+            case "cancelled" -> BatchJob.Status.CANCELLED;
+            // in_progress, finalizing, cancelling
+            default -> BatchJob.Status.IN_PROGRESS;
+        };
+    }
+}
@@ -0,0 +1,224 @@
+package top.yumbo.ai.adaptor.parser;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.comments.LineComment;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import lombok.extern.slf4j.Slf4j;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+/**
+ * Code skeletonizer for compacting large source files before they are sent to the AI.
+ * Keeps imports, type/function signatures and docstrings, replaces bodies with a short
+ * placeholder and appends a sampled excerpt of the largest body so the reviewer still
+ * sees real code. Java uses JavaParser, Python and JavaScript reuse the structure
+ * extracted by {@link PythonFileParser} and {@link JavaScriptFileParser}; other files
+ * fall back to a head/tail excerpt.
+ */
+@Slf4j
+public class CodeSkeletonizer {
+    public static final int DEFAULT_EXCERPT_LINES = 40;
+    private final int excerptLines;
+    private final PythonFileParser pythonParser = new PythonFileParser();
+    private final JavaScriptFileParser javaScriptParser = new JavaScriptFileParser();
+    public CodeSkeletonizer() {
+        this(DEFAULT_EXCERPT_LINES);
+    }
+    public CodeSkeletonizer(int excerptLines) {
+        this.excerptLines = Math.max(1, excerptLines);
+    }
+    /**
+     * Build a skeleton of the given source content
+     *
+     * @param content  original file content
+     * @param fileName file name, used to pick the language
+     * @return skeletonized content, never longer than the original
+     */
+    public String skeletonize(String content, String fileName) {
+        if (content == null || content.isEmpty()) {
+            return content;
+        }
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        String skeleton = null;
+        try {
+            if (name.endsWith(".java")) {
+                skeleton = skeletonizeJava(content);
+            } else if (matchesAny(name, pythonParser.getSupportedExtensions())) {
+                skeleton = skeletonizeOutline(content, pythonParser.parseAST(content, new File(name)), "#");
+            } else if (matchesAny(name, javaScriptParser.getSupportedExtensions())) {
+                skeleton = skeletonizeOutline(content, javaScriptParser.parseAST(content, new File(name)), "//");
+            }
+        } catch (Exception e) {
+            log.debug("Structural skeleton failed for {}, falling back to excerpt: {}", fileName, e.getMessage());
+        }
+        if (skeleton == null) {
+            skeleton = headTailExcerpt(content);
+        }
+        return skeleton.length() < content.length() ? skeleton : content;
+    }
+    /**
+     * Java skeleton: pretty-print the compilation unit with every method, constructor
+     * and initializer body replaced by a line-count placeholder
+     */
+    private String skeletonizeJava(String content) {
+        ParseResult<CompilationUnit> result = new JavaParser().parse(content);
+        if (!result.isSuccessful() || result.getResult().isEmpty()) {
+            return null;
+        }
+        CompilationUnit cu = result.getResult().get();
+        String[] lines = content.split("\\r?\\n", -1);
+        // Remember the largest callable before bodies are replaced
+        Range largest = cu.findAll(CallableDeclaration.class).stream()
+                .map(callable -> callable.getRange().orElse(null))
+                .filter(range -> range != null)
+                .max(Comparator.comparingInt(Range::getLineCount))
+                .orElse(null);
+        for (MethodDeclaration method : cu.findAll(MethodDeclaration.class)) {
+            method.getBody().ifPresent(body -> method.setBody(placeholder(body)));
+        }
+        for (ConstructorDeclaration constructor : cu.findAll(ConstructorDeclaration.class)) {
+            constructor.setBody(placeholder(constructor.getBody()));
+        }
+        for (InitializerDeclaration initializer : cu.findAll(InitializerDeclaration.class)) {
+            initializer.setBody(placeholder(initializer.getBody()));
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(header("//", lines.length, content.length()));
+        sb.append(cu.toString());
+        if (largest != null) {
+            appendExcerpt(sb, lines, largest.begin.line, "//");
+        }
+        return sb.toString();
+    }
+    private BlockStmt placeholder(BlockStmt body) {
+        int bodyLines = body.getRange().map(Range::getLineCount).orElse(0);
+        BlockStmt stub = new BlockStmt();
+        stub.addOrphanComment(new LineComment(" ... " + bodyLines + " lines omitted"));
+        return stub;
+    }
+    /**
+     * Outline skeleton for line-oriented parsers: imports, class and function lines with
+     * their docstrings, in source order
+     */
+    @SuppressWarnings("unchecked")
+    private String skeletonizeOutline(String content, Map<String, Object> astInfo, String commentPrefix) {
+        String[] lines = content.split("\\r?\\n", -1);
+        List<Map<String, Object>> entries = new ArrayList<>();
+        List<Map<String, Object>> classes = (List<Map<String, Object>>) astInfo.get("classes");
+        List<Map<String, Object>> functions = (List<Map<String, Object>>) astInfo.get("functions");
+        if (classes != null) {
+            entries.addAll(classes);
+        }
+        if (functions != null) {
+            entries.addAll(functions);
+        }
+        if (entries.isEmpty()) {
+            return null;
+        }
+        entries.sort(Comparator.comparingInt(entry -> (Integer) entry.get("lineNumber")));
+        StringBuilder sb = new StringBuilder();
+        sb.append(header(commentPrefix, lines.length, content.length()));
+        List<String> imports = (List<String>) astInfo.get("imports");
+        if (imports != null && !imports.isEmpty()) {
+            for (String importLine : imports) {
+                sb.append(importLine).append('\n');
+            }
+            sb.append('\n');
+        }
+        int largestStart = -1;
+        int largestSpan = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Map<String, Object> entry = entries.get(i);
+            int lineNumber = (Integer) entry.get("lineNumber");
+            if (lineNumber < 1 || lineNumber > lines.length) {
+                continue;
+            }
+            int nextLine = i + 1 < entries.size() ? (Integer) entries.get(i + 1).get("lineNumber") : lines.length + 1;
+            int span = nextLine - lineNumber - 1;
+            if (span > largestSpan) {
+                largestSpan = span;
+                largestStart = lineNumber;
+            }
+            String definition = lines[lineNumber - 1];
+            String indent = definition.substring(0, definition.length() - definition.stripLeading().length());
+            List<String> decorators = (List<String>) entry.get("decorators");
+            if (decorators != null) {
+                for (String decorator : decorators) {
+                    sb.append(indent).append('@').append(decorator).append('\n');
+                }
+            }
+            sb.append(definition).append('\n');
+            String docstring = (String) entry.get("docstring");
+            int docLines = 0;
+            if (docstring != null) {
+                sb.append(indent).append("    ").append(docstring).append('\n');
+                docLines = docstring.split("\n").length;
+            }
+            List<Map<String, Object>> methods = (List<Map<String, Object>>) entry.get("methods");
+            if (methods != null) {
+                for (Map<String, Object> method : methods) {
+                    sb.append(indent).append("    ").append(method.get("name"))
+                            .append('(').append(method.get("parameters")).append(")\n");
+                }
+            }
+            int omitted = span - docLines;
+            if (omitted > 0) {
+                sb.append(indent).append("    ").append(commentPrefix)
+                        .append(" ... ").append(omitted).append(" lines omitted\n");
+            }
+        }
+        if (largestStart > 0) {
+            appendExcerpt(sb, lines, largestStart, commentPrefix);
+        }
+        return sb.toString();
+    }
+    /**
+     * Fallback for languages without a structural parser: keep the head and tail of the file
+     */
+    private String headTailExcerpt(String content) {
+        String[] lines = content.split("\\r?\\n", -1);
+        int tailLines = Math.max(1, excerptLines / 2);
+        if (lines.length <= excerptLines + tailLines) {
+            return content;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < excerptLines; i++) {
+            sb.append(lines[i]).append('\n');
+        }
+        sb.append("\n... [").append(lines.length - excerptLines - tailLines).append(" lines omitted] ...\n\n");
+        for (int i = lines.length - tailLines; i < lines.length; i++) {
+            sb.append(lines[i]).append('\n');
+        }
+        return sb.toString();
+    }
+    private void appendExcerpt(StringBuilder sb, String[] lines, int startLine, String commentPrefix) {
+        int from = startLine - 1;
+        int to = Math.min(lines.length, from + excerptLines);
+        sb.append('\n').append(commentPrefix).append(" ----- excerpt: lines ").append(startLine)
+                .append('-').append(to).append(" of ").append(lines.length).append(" -----\n");
+        for (int i = from; i < to; i++) {
+            sb.append(lines[i]).append('\n');
+        }
+    }
+    private String header(String commentPrefix, int lineCount, int charCount) {
+        return commentPrefix + " [Skeleton] original file: " + lineCount + " lines, " + charCount
+                + " chars; bodies omitted, signatures and docs kept\n";
+    }
+    private static boolean matchesAny(String name, String[] extensions) {
+        for (String extension : extensions) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
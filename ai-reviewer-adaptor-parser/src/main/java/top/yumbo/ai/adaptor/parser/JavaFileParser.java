@@ -8,6 +8,7 @@ import top.yumbo.ai.api.parser.IFileParser;
 import top.yumbo.ai.common.constants.Constants;
 import top.yumbo.ai.common.exception.ParseException;
 import top.yumbo.ai.common.util.FileUtil;
+import top.yumbo.ai.core.content.FileContentHandle;
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
@@ -46,6 +47,7 @@ public class JavaFileParser implements IFileParser {
             return PreProcessedData.builder()
                     .metadata(metadata)
                     .content(content)
+                    .contentHandle(new FileContentHandle(file.toPath()))
 //                    .context(context)
                     .parserName(getParserName())
                     .build();
@@ -133,7 +133,8 @@ public class JavaScriptFileParser extends AbstractASTParser {
                 }
                 classInfo.put("isExported", line.trim().startsWith("export"));
                 // Extract methods within the class
-                List<Map<String, Object>> methods = extractMethodsFromClass(reader);
+                List<Map<String, Object>> methods = new ArrayList<>();
+                lineNumber += extractMethodsFromClass(reader, methods);
                 classInfo.put("methods", methods);
                 classInfo.put("methodCount", methods.size());
                 classes.add(classInfo);
@@ -180,12 +181,15 @@ public class JavaScriptFileParser extends AbstractASTParser {
     }
     /**
      * Extract methods from a class body
+     *
+     * @return number of lines consumed from the reader
      */
-    private List<Map<String, Object>> extractMethodsFromClass(BufferedReader reader) throws Exception {
-        List<Map<String, Object>> methods = new ArrayList<>();
+    private int extractMethodsFromClass(BufferedReader reader, List<Map<String, Object>> methods) throws Exception {
         String line;
+        int consumed = 0;
         int braceCount = 1; // Already in class body
         while ((line = reader.readLine()) != null && braceCount > 0) {
+            consumed++;
             // Count braces to know when we exit the class
             braceCount += line.chars().filter(ch -> ch == '{').count();
             braceCount -= line.chars().filter(ch -> ch == '}').count();
@@ -199,7 +203,7 @@ public class JavaScriptFileParser extends AbstractASTParser {
                 methods.add(methodInfo);
             }
         }
-        return methods;
+        return consumed;
     }
     /**
      * Extract TypeScript interfaces
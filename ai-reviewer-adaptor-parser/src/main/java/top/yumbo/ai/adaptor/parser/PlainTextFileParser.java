@@ -6,6 +6,8 @@ import top.yumbo.ai.api.parser.IFileParser;
 import top.yumbo.ai.common.constants.Constants;
 import top.yumbo.ai.common.exception.ParseException;
 import top.yumbo.ai.common.util.FileUtil;
+import top.yumbo.ai.common.util.StringUtil;
+import top.yumbo.ai.core.content.FileContentHandle;
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,9 +26,10 @@ public class PlainTextFileParser implements IFileParser {
         log.debug("Parsing text file: {}", file.getAbsolutePath());
         try {
             String content = FileUtil.readFileToString(file);
-            // Extract basic metadata
+            // Extract basic metadata; lines are counted without splitting the content
+            int lineCount = StringUtil.countLines(content);
             Map<String, Object> context = new HashMap<>();
-            context.put("lineCount", content.split("\\r?\\n").length);
+            context.put("lineCount", lineCount);
             context.put("characterCount", content.length());
             // Build metadata
             FileMetadata metadata = FileMetadata.builder()
@@ -34,11 +37,13 @@ public class PlainTextFileParser implements IFileParser {
                     .fileName(file.getName())
                     .fileType(FileUtil.getFileExtension(file))
                     .fileSize(file.length())
+                    .lineCount(lineCount)
                     .encoding(Constants.DEFAULT_ENCODING)
                     .build();
             return PreProcessedData.builder()
                     .metadata(metadata)
                     .content(content)
+                    .contentHandle(new FileContentHandle(file.toPath()))
                     .context(context)
                     .parserName(getParserName())
                     .build();
@@ -123,6 +123,7 @@ public class PythonFileParser extends AbstractASTParser {
                 String docstring = extractDocstring(reader);
                 if (docstring != null) {
                     classInfo.put("docstring", docstring);
+                    lineNumber += docstring.split("\n").length;
                 }
                 classes.add(classInfo);
                 currentDecorators.clear();
@@ -162,6 +163,7 @@ public class PythonFileParser extends AbstractASTParser {
                 String docstring = extractDocstring(reader);
                 if (docstring != null) {
                     functionInfo.put("docstring", docstring);
+                    lineNumber += docstring.split("\n").length;
                 }
                 functions.add(functionInfo);
                 currentDecorators.clear();
@@ -198,7 +200,12 @@ public class PythonFileParser extends AbstractASTParser {
             Matcher docstringMatcher = DOCSTRING_PATTERN.matcher(nextLine);
             if (docstringMatcher.find()) {
                 StringBuilder docstring = new StringBuilder();
-                docstring.append(nextLine.trim());
+                String opening = nextLine.trim();
+                docstring.append(opening);
+                // Single-line docstring: opening and closing quotes on the same line
+                if (opening.length() >= 6 && (opening.endsWith("\"\"\"") || opening.endsWith("\'\'\'"))) {
+                    return docstring.toString();
+                }
                 // Read until closing triple quotes
                 String line;
                 while ((line = reader.readLine()) != null) {
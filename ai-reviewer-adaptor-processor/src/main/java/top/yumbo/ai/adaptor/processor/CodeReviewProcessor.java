@@ -13,6 +13,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Code review processor that generates review reports
@@ -44,8 +45,24 @@ public class CodeReviewProcessor implements IResultProcessor {
                 report.append("**Model:** ").append(response.getModel()).append("\n");
                 report.append("**Provider:** ").append(response.getProvider()).append("\n");
 
+                // Packed or chunked requests record the source files they cover
+                if (response.getMetadata() != null && response.getMetadata().get("sourceFiles") instanceof List<?> sourceFiles) {
+                    report.append("**Source Files:** ").append(sourceFiles.stream().map(String::valueOf)
+                            .collect(Collectors.joining(", ")));
+                    Object chunkIndex = response.getMetadata().get("chunkIndex");
+                    if (chunkIndex != null) {
+                        report.append(" (part ").append(chunkIndex).append('/')
+                                .append(response.getMetadata().get("chunkCount")).append(')');
+                    }
+                    report.append("\n");
+                }
+
                 if (response.getTokenUsage() != null) {
                     report.append("**Tokens Used:** ").append(response.getTokenUsage().getTotalTokens()).append("\n");
+                    Integer cacheRead = response.getTokenUsage().getCacheRInputTokens();
+                    if (cacheRead != null && cacheRead > 0) {
+                        report.append("**Cached Input Tokens:** ").append(cacheRead).append("\n");
+                    }
                 }
 
                 if (response.getProcessingTimeMs() != null) {
@@ -2,6 +2,9 @@ package top.yumbo.ai.api.ai;
 import top.yumbo.ai.api.model.AIConfig;
 import top.yumbo.ai.api.model.AIResponse;
 import top.yumbo.ai.api.model.PreProcessedData;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 /**
  * AI service interface for invoking different AI providers
  */
@@ -15,6 +18,54 @@ public interface IAIService {
      * @throws Exception if AI invocation fails
      */
     AIResponse invoke(PreProcessedData data, AIConfig config) throws Exception;
+    /**
+     * Invoke AI service asynchronously.
+     * The default implementation runs the blocking {@link #invoke} on the given executor;
+     * services with a non-blocking client override it to complete the future from their I/O threads.
+     *
+     * @param data preprocessed data from parser
+     * @param config AI configuration
+     * @param executor executor for blocking work
+     * @return future completing with the AI response, or exceptionally if the invocation fails
+     */
+    default CompletableFuture<AIResponse> invokeAsync(PreProcessedData data, AIConfig config, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return invoke(data, config);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+    /**
+     * Invoke AI service and stream the generated content to the listener as it arrives.
+     * The returned response holds the accumulated content; if the listener cancels,
+     * it holds the content received so far with stop reason "cancelled".
+     * Services without streaming support deliver the whole content as one delta.
+     *
+     * @param data preprocessed data from parser
+     * @param config AI configuration
+     * @param listener delta listener, may be null
+     * @return AI response built from the accumulated deltas
+     * @throws Exception if AI invocation fails
+     */
+    default AIResponse invokeStream(PreProcessedData data, AIConfig config, IStreamListener listener) throws Exception {
+        AIResponse response = invoke(data, config);
+        if (listener != null && response != null && response.getContent() != null) {
+            listener.onDelta(response.getContent());
+        }
+        return response;
+    }
+    /**
+     * Check if the service streams responses incrementally
+     *
+     * @return true if {@link #invokeStream} delivers deltas as they are generated
+     */
+    default boolean supportsStreaming() {
+        return false;
+    }
     /**
      * Check if the AI service is available
      * 
@@ -0,0 +1,94 @@
+package top.yumbo.ai.api.ai;
+import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.AIResponse;
+import top.yumbo.ai.api.model.BatchJob;
+import top.yumbo.ai.api.model.BatchRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+/**
+ * Batch inference service interface.
+ * Submits many requests as one asynchronous provider job, which is typically much cheaper
+ * than on-demand calls and completes within hours instead of seconds.
+ */
+public interface IBatchAIService {
+    /**
+     * Write the requests in the provider's batch format and submit them as one job
+     *
+     * @param requests requests with unique custom ids
+     * @param config AI configuration
+     * @return submitted job
+     * @throws Exception if the submission fails
+     */
+    BatchJob submit(List<BatchRequest> requests, AIConfig config) throws Exception;
+    /**
+     * Get the current status of a job
+     *
+     * @param jobId provider job id
+     * @param config AI configuration
+     * @return job status
+     * @throws Exception if the status cannot be fetched
+     */
+    BatchJob getJob(String jobId, AIConfig config) throws Exception;
+    /**
+     * Fetch the outputs of a finished job.
+     * Requests that failed inside the job are absent from the result.
+     *
+     * @param job finished job
+     * @param config AI configuration
+     * @return responses by custom id
+     * @throws Exception if the outputs cannot be fetched
+     */
+    Map<String, AIResponse> getResults(BatchJob job, AIConfig config) throws Exception;
+    /**
+     * Cancel a running job
+     *
+     * @param jobId provider job id
+     * @param config AI configuration
+     * @throws Exception if the job cannot be cancelled
+     */
+    default void cancel(String jobId, AIConfig config) throws Exception {
+        throw new UnsupportedOperationException("Cancelling batch jobs is not supported by " + getProviderName());
+    }
+    /**
+     * Submit the requests, poll until the job finishes and fetch its outputs.
+     * The job is cancelled when it does not finish within the given time.
+     *
+     * @param requests requests with unique custom ids
+     * @param config AI configuration
+     * @param pollInterval delay between status checks
+     * @param maxWait maximum time to wait for the job
+     * @return responses by custom id
+     * @throws Exception if the job fails, expires without outputs or times out
+     */
+    default Map<String, AIResponse> execute(List<BatchRequest> requests, AIConfig config,
+                                            Duration pollInterval, Duration maxWait) throws Exception {
+        BatchJob job = submit(requests, config);
+        long deadline = System.currentTimeMillis() + maxWait.toMillis();
+        while (!job.getStatus().isTerminal()) {
+            if (System.currentTimeMillis() >= deadline) {
+                try {
+                    cancel(job.getJobId(), config);
+                } catch (UnsupportedOperationException e) {
+                    // leave the job running, its outputs are simply not collected
+                }
+                throw new TimeoutException("Batch job " + job.getJobId() + " did not finish within " + maxWait);
+            }
+            Thread.sleep(pollInterval.toMillis());
+            job = getJob(job.getJobId(), config);
+        }
+        // Expired and cancelled jobs still return the outputs of the requests that completed
+        if (job.getStatus() == BatchJob.Status.FAILED || job.getOutputLocation() == null) {
+            throw new IllegalStateException("Batch job " + job.getJobId() + " ended with status " + job.getStatus()
+                    + (job.getErrorMessage() != null ? ": " + job.getErrorMessage() : ""));
+        }
+        return getResults(job, config);
+    }
+    /**
+     * Get the service provider name
+     *
+     * @return provider name
+     */
+    String getProviderName();
+}
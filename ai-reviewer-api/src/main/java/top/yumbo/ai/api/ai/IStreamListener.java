@@ -0,0 +1,18 @@
+package top.yumbo.ai.api.ai;
+/**
+ * Listener receiving content deltas while an AI response is streamed
+ */
+@FunctionalInterface
+public interface IStreamListener {
+    /**
+     * Response metadata key: milliseconds from sending the request to the first content delta
+     */
+    String METADATA_TIME_TO_FIRST_TOKEN_MS = "timeToFirstTokenMs";
+    /**
+     * Called for every content delta, in order
+     *
+     * @param delta newly generated text
+     * @return true to keep streaming, false to cancel the request
+     */
+    boolean onDelta(String delta);
+}
@@ -5,13 +5,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 
 /**
  * AI service configuration
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class AIConfig {
@@ -61,6 +62,27 @@ public class AIConfig {
      * Max retry attempts
      */
     private Integer maxRetries;
+    /**
+     * Mark the static prompt prefix (system prompt and the user prompt text before %s) as
+     * cacheable with Anthropic-style cache_control blocks, placing the project content last
+     */
+    private Boolean promptCaching;
+    /**
+     * Stream responses (server-sent events) and build the result from the deltas
+     */
+    private Boolean stream;
+    /**
+     * HTTP connection pool, concurrency and compression settings
+     */
+    private HttpClientConfig http;
+    /**
+     * Model routing rules, evaluated in order; the first match picks provider and model per request
+     */
+    private List<RoutingRule> routing;
+    /**
+     * Endpoints (regions, URLs or accounts) to balance requests across; empty uses this config's own
+     */
+    private List<AIEndpoint> endpoints;
     /**
      * Custom parameters
      */
@@ -0,0 +1,47 @@
+package top.yumbo.ai.api.model;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * One endpoint (region, URL or account) of a provider that requests can be balanced across.
+ * Unset connection fields fall back to the enclosing {@link AIConfig}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIEndpoint {
+    /**
+     * Endpoint name, used in logs (defaults to region or URL)
+     */
+    private String name;
+    /**
+     * Cloud region
+     */
+    private String region;
+    /**
+     * API endpoint URL
+     */
+    private String endpoint;
+    /**
+     * API key
+     */
+    private String apiKey;
+    /**
+     * Model identifier in this endpoint, e.g. a region-specific inference profile
+     */
+    private String model;
+    /**
+     * Relative share of traffic before latency and quota are taken into account
+     */
+    private Double weight;
+    /**
+     * Request quota per minute (null means unlimited)
+     */
+    private Integer requestsPerMinute;
+    /**
+     * Token quota per minute, input plus output (null means unlimited)
+     */
+    private Integer tokensPerMinute;
+}
@@ -0,0 +1,61 @@
+package top.yumbo.ai.api.model;
+import lombok.Builder;
+import lombok.Data;
+import java.time.LocalDateTime;
+/**
+ * Status of a submitted batch inference job
+ */
+@Data
+@Builder
+public class BatchJob {
+    /**
+     * Provider job id
+     */
+    private String jobId;
+    /**
+     * Provider name
+     */
+    private String provider;
+    /**
+     * Current status
+     */
+    private Status status;
+    /**
+     * Number of requests in the job
+     */
+    private int totalRequests;
+    /**
+     * Number of requests completed successfully
+     */
+    private int completedRequests;
+    /**
+     * Number of failed requests
+     */
+    private int failedRequests;
+    /**
+     * Where the outputs can be fetched from (provider file id, URI or path)
+     */
+    private String outputLocation;
+    /**
+     * Error message if the job failed
+     */
+    private String errorMessage;
+    /**
+     * Submission time
+     */
+    private LocalDateTime submittedAt;
+
+    /**
+     * Batch job status
+     */
+    public enum Status {
+        VALIDATING, IN_PROGRESS, COMPLETED, FAILED, EXPIRED, CANCELLED;
+
+        /**
+         * Check if the job will not change any more
+         */
+        public boolean isTerminal() {
+            return this == COMPLETED || this == FAILED || this == EXPIRED || this == CANCELLED;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package top.yumbo.ai.api.model;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+/**
+ * One request of a batch inference job
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequest {
+    /**
+     * Caller-chosen id, unique within the job, used to map outputs back to their requests
+     */
+    private String customId;
+    /**
+     * Preprocessed data to send
+     */
+    private PreProcessedData data;
+}
@@ -0,0 +1,23 @@
+package top.yumbo.ai.api.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Source of a file's content that can be loaded again after the in-memory copy is released,
+ * e.g. the original file or a spilled copy on disk
+ */
+public interface ContentHandle {
+    /**
+     * Load the content
+     */
+    String load() throws IOException;
+
+    /**
+     * Reader over the content; handles that can stream their content avoid loading it whole
+     */
+    default Reader openReader() throws IOException {
+        return new StringReader(load());
+    }
+}
@@ -24,6 +24,10 @@ public class FileMetadata {
      * File size in bytes
      */
     private long fileSize;
+    /**
+     * Number of lines of the parsed content, recorded in the parse stage
+     */
+    private Integer lineCount;
     /**
      * MIME type
      */
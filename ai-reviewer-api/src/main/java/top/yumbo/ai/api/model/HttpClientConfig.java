@@ -0,0 +1,61 @@
+package top.yumbo.ai.api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * HTTP client tuning shared by AI service adapters; unset values use the defaults below
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpClientConfig {
+    public static final int DEFAULT_MAX_REQUESTS = 128;
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 64;
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 32;
+    public static final int DEFAULT_KEEP_ALIVE_SECONDS = 300;
+
+    /**
+     * Max concurrent in-flight requests across all hosts
+     */
+    private Integer maxRequests;
+    /**
+     * Max concurrent in-flight requests to a single host
+     */
+    private Integer maxRequestsPerHost;
+    /**
+     * Max idle connections kept in the pool
+     */
+    private Integer maxIdleConnections;
+    /**
+     * How long an idle connection is kept alive, in seconds
+     */
+    private Integer keepAliveSeconds;
+    /**
+     * Negotiate HTTP/2 (multiplexing many calls over one connection); false forces HTTP/1.1
+     */
+    private Boolean http2;
+    /**
+     * Gzip-compress request bodies (the endpoint must accept Content-Encoding: gzip)
+     */
+    private Boolean gzipRequests;
+
+    public int maxRequestsOrDefault() {
+        return maxRequests != null ? maxRequests : DEFAULT_MAX_REQUESTS;
+    }
+
+    public int maxRequestsPerHostOrDefault() {
+        return maxRequestsPerHost != null ? maxRequestsPerHost : DEFAULT_MAX_REQUESTS_PER_HOST;
+    }
+
+    public int maxIdleConnectionsOrDefault() {
+        return maxIdleConnections != null ? maxIdleConnections : DEFAULT_MAX_IDLE_CONNECTIONS;
+    }
+
+    public int keepAliveSecondsOrDefault() {
+        return keepAliveSeconds != null ? keepAliveSeconds : DEFAULT_KEEP_ALIVE_SECONDS;
+    }
+}
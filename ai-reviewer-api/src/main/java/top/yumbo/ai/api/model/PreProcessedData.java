@@ -1,6 +1,12 @@
 package top.yumbo.ai.api.model;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.Map;
 /**
  * Preprocessed data model containing parsed file information
@@ -13,9 +19,16 @@ public class PreProcessedData {
      */
     private FileMetadata metadata;
     /**
-     * Parsed structured content
+     * Parsed structured content; null while released, in which case it is loaded from the handle.
+     * Left out of toString/equals/hashCode, which would otherwise reload released content
      */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String content;
+    /**
+     * Where released content is loaded from (null keeps the content in memory only)
+     */
+    private ContentHandle contentHandle;
     /**
      * Additional context information
      */
@@ -24,4 +37,46 @@ public class PreProcessedData {
      * Parser used to create this data
      */
     private String parserName;
+    /**
+     * Estimated token count of the content, recorded in the parse stage
+     */
+    private Integer estimatedTokens;
+
+    /**
+     * Get the content, loading it from the handle if it was released
+     */
+    public String getContent() {
+        if (content != null || contentHandle == null) {
+            return content;
+        }
+        try {
+            return contentHandle.load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load released content", e);
+        }
+    }
+    /**
+     * Reader over the content (empty when there is none), streaming it from the handle if it was released
+     */
+    public Reader openContentReader() throws IOException {
+        if (content != null || contentHandle == null) {
+            return new StringReader(content != null ? content : "");
+        }
+        return contentHandle.openReader();
+    }
+    /**
+     * Drop the in-memory content; later reads load it from the handle
+     */
+    public void releaseContent() {
+        if (contentHandle == null) {
+            throw new IllegalStateException("Content has no handle to load it from");
+        }
+        content = null;
+    }
+    /**
+     * Whether the content is held in memory
+     */
+    public boolean isContentLoaded() {
+        return content != null;
+    }
 }
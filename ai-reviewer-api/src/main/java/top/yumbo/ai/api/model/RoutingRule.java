@@ -0,0 +1,56 @@
+package top.yumbo.ai.api.model;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+/**
+ * Model routing rule: requests matching every condition that is set are sent to this
+ * rule's provider and model instead of the default ones
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutingRule {
+    /**
+     * Request context key holding the request priority (e.g. "low", "normal", "high")
+     */
+    public static final String CONTEXT_PRIORITY = "priority";
+    /**
+     * Rule name, used in logs and response metadata
+     */
+    private String name;
+    /**
+     * Minimum estimated content tokens (inclusive)
+     */
+    private Integer minEstimatedTokens;
+    /**
+     * Maximum estimated content tokens (inclusive)
+     */
+    private Integer maxEstimatedTokens;
+    /**
+     * File types the rule applies to (case-insensitive)
+     */
+    private List<String> fileTypes;
+    /**
+     * Request priorities the rule applies to (case-insensitive)
+     */
+    private List<String> priorities;
+    /**
+     * Provider to use (defaults to the configured provider)
+     */
+    private String provider;
+    /**
+     * Model to use
+     */
+    private String model;
+    /**
+     * Max tokens to generate (defaults to the configured value)
+     */
+    private Integer maxTokens;
+    /**
+     * Escalate to the default provider and model when this route fails or its response is rejected
+     */
+    private Boolean cascade;
+}
@@ -3,10 +3,24 @@ package top.yumbo.ai.common.exception;
  * Exception thrown during AI service invocation
  */
 public class AIServiceException extends AIReviewerException {
+    /**
+     * HTTP status of the failed call, or null when the call got no response
+     */
+    private final Integer statusCode;
+
     public AIServiceException(String message) {
         super(message);
+        this.statusCode = null;
+    }
+    public AIServiceException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
     }
     public AIServiceException(String message, Throwable cause) {
         super(message, cause);
+        this.statusCode = null;
+    }
+    public Integer getStatusCode() {
+        return statusCode;
     }
 }
@@ -0,0 +1,221 @@
+package top.yumbo.ai.common.token;
+
+import java.util.Locale;
+
+/**
+ * Fast local token estimator.
+ * Approximates byte-pair tokenizers in a single pass over the text without allocating:
+ * letter runs cost one token plus one per few extra characters, digit runs are grouped,
+ * whitespace runs collapse, punctuation and CJK characters are counted per character.
+ * The weights differ per model family; {@link #quickEstimate(CharSequence)} is an even
+ * cheaper char-class heuristic for rough sizing.
+ */
+public final class TokenEstimator {
+
+    /**
+     * Model families with distinct tokenizer behaviour
+     */
+    public enum ModelFamily {
+        /**
+         * Anthropic Claude (including Claude on Bedrock)
+         */
+        CLAUDE(3.6, 2, 0.9, 0.5, 1.2, 1.0),
+        /**
+         * OpenAI GPT / o-series (cl100k / o200k)
+         */
+        GPT(4.0, 3, 0.8, 0.4, 0.9, 0.8),
+        /**
+         * DeepSeek (digits split individually, efficient on Chinese)
+         */
+        DEEPSEEK(3.8, 1, 0.9, 0.4, 0.7, 0.9),
+        /**
+         * Meta Llama 3 and similar tiktoken-derived vocabularies
+         */
+        LLAMA(3.9, 3, 0.8, 0.4, 1.0, 0.9),
+        /**
+         * Amazon Nova and unknown models
+         */
+        GENERIC(3.8, 2, 0.9, 0.5, 1.0, 1.0);
+
+        /** Extra letters per token after the first token of a word */
+        private final double charsPerWordToken;
+        /** Digits per token in a digit run */
+        private final int digitsPerToken;
+        /** Tokens per punctuation/symbol character */
+        private final double punctuationToken;
+        /** Tokens per line break (indentation following it is merged) */
+        private final double newlineToken;
+        /** Tokens per CJK character */
+        private final double cjkToken;
+        /** Tokens per other non-ASCII character */
+        private final double otherToken;
+
+        ModelFamily(double charsPerWordToken, int digitsPerToken, double punctuationToken,
+                    double newlineToken, double cjkToken, double otherToken) {
+            this.charsPerWordToken = charsPerWordToken;
+            this.digitsPerToken = digitsPerToken;
+            this.punctuationToken = punctuationToken;
+            this.newlineToken = newlineToken;
+            this.cjkToken = cjkToken;
+            this.otherToken = otherToken;
+        }
+
+        /**
+         * Detect the family from a model id, e.g. "anthropic.claude-3-5-sonnet" or "deepseek-chat"
+         */
+        public static ModelFamily fromModel(String model) {
+            if (model == null) {
+                return GENERIC;
+            }
+            String id = model.toLowerCase(Locale.ROOT);
+            if (id.contains("claude")) {
+                return CLAUDE;
+            }
+            if (id.contains("deepseek")) {
+                return DEEPSEEK;
+            }
+            if (id.contains("llama")) {
+                return LLAMA;
+            }
+            if (id.contains("gpt") || id.startsWith("o1") || id.startsWith("o3") || id.startsWith("o4")
+                    || id.contains("openai")) {
+                return GPT;
+            }
+            return GENERIC;
+        }
+    }
+
+    private static final TokenEstimator[] SHARED = new TokenEstimator[ModelFamily.values().length];
+
+    static {
+        for (ModelFamily family : ModelFamily.values()) {
+            SHARED[family.ordinal()] = new TokenEstimator(family, 1.0);
+        }
+    }
+
+    private final ModelFamily family;
+    private final double scale;
+
+    /**
+     * @param family tokenizer family
+     * @param scale  calibration factor applied to every estimate (1.0 = uncalibrated)
+     */
+    public TokenEstimator(ModelFamily family, double scale) {
+        this.family = family != null ? family : ModelFamily.GENERIC;
+        this.scale = scale > 0 ? scale : 1.0;
+    }
+
+    /**
+     * Shared estimator for the given family
+     */
+    public static TokenEstimator of(ModelFamily family) {
+        return SHARED[(family != null ? family : ModelFamily.GENERIC).ordinal()];
+    }
+
+    /**
+     * Shared estimator for the family of the given model id
+     */
+    public static TokenEstimator forModel(String model) {
+        return of(ModelFamily.fromModel(model));
+    }
+
+    public ModelFamily getFamily() {
+        return family;
+    }
+
+    /**
+     * Estimate the number of tokens in the text
+     */
+    public int estimate(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int length = text.length();
+        double tokens = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isAsciiLetter(c)) {
+                int start = i;
+                do {
+                    i++;
+                } while (i < length && isAsciiLetter(text.charAt(i)) && !isCamelBoundary(text, i));
+                tokens += 1 + (i - start - 1) / family.charsPerWordToken;
+            } else if (c >= '0' && c <= '9') {
+                int start = i;
+                do {
+                    i++;
+                } while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9');
+                tokens += (i - start + family.digitsPerToken - 1) / family.digitsPerToken;
+            } else if (c == '\n') {
+                i++;
+                // Indentation after a line break is merged into a single whitespace token
+                while (i < length && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) {
+                    i++;
+                }
+                tokens += family.newlineToken;
+            } else if (c == ' ' || c == '\t' || c == '\r') {
+                int start = i;
+                do {
+                    i++;
+                } while (i < length && (text.charAt(i) == ' ' || text.charAt(i) == '\t'));
+                // A single space is merged into the following word token
+                if (i - start > 1) {
+                    tokens += 1;
+                }
+            } else if (c < 0x80) {
+                i++;
+                tokens += family.punctuationToken;
+            } else if (Character.isHighSurrogate(c)) {
+                i += 2;
+                tokens += 2 * family.otherToken;
+            } else {
+                i++;
+                tokens += isCjk(c) ? family.cjkToken : family.otherToken;
+            }
+        }
+        return (int) Math.ceil(tokens * scale);
+    }
+
+    /**
+     * Cheap char-class heuristic: about four ASCII characters per token,
+     * one token per CJK or other non-ASCII character
+     */
+    public static int quickEstimate(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int length = text.length();
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + other;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    /**
+     * camelCase identifiers split into several tokens at lower-to-upper transitions
+     */
+    private static boolean isCamelBoundary(CharSequence text, int i) {
+        char c = text.charAt(i);
+        char prev = text.charAt(i - 1);
+        return c >= 'A' && c <= 'Z' && prev >= 'a' && prev <= 'z';
+    }
+
+    private static boolean isCjk(char c) {
+        return (c >= 0x4E00 && c <= 0x9FFF)    // CJK unified ideographs
+                || (c >= 0x3400 && c <= 0x4DBF) // extension A
+                || (c >= 0x3000 && c <= 0x30FF) // CJK punctuation, hiragana, katakana
+                || (c >= 0xAC00 && c <= 0xD7AF) // hangul syllables
+                || (c >= 0xFF00 && c <= 0xFFEF); // full-width forms
+    }
+}
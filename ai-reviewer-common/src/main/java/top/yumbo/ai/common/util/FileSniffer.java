@@ -0,0 +1,175 @@
+package top.yumbo.ai.common.util;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Classifies files as text or binary from a small prefix and picks the decoder for text.
+ * Looks at byte order marks, magic numbers of common binary formats, NUL and control bytes,
+ * and whether the prefix is valid UTF-8.
+ */
+public final class FileSniffer {
+    /**
+     * Bytes read from the start of a file
+     */
+    public static final int PREFIX_BYTES = 4096;
+    /**
+     * Decoder for text that is not valid UTF-8; covers GBK, the usual legacy encoding of our submissions
+     */
+    public static final Charset LEGACY_CHARSET = Charset.forName("GB18030");
+    private static final double MAX_CONTROL_RATIO = 0.1;
+
+    private static final byte[] BOM_UTF8 = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] BOM_UTF16LE = {(byte) 0xFF, (byte) 0xFE};
+    private static final byte[] BOM_UTF16BE = {(byte) 0xFE, (byte) 0xFF};
+
+    /**
+     * Magic numbers of binary formats, as format name and leading bytes
+     */
+    private static final Object[][] MAGIC_NUMBERS = {
+            {"png", new byte[]{(byte) 0x89, 'P', 'N', 'G'}},
+            {"jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}},
+            {"gif", new byte[]{'G', 'I', 'F', '8'}},
+            {"pdf", new byte[]{'%', 'P', 'D', 'F', '-'}},
+            {"zip", new byte[]{'P', 'K', 3, 4}},
+            {"zip", new byte[]{'P', 'K', 5, 6}},
+            {"gzip", new byte[]{0x1F, (byte) 0x8B}},
+            {"7z", new byte[]{'7', 'z', (byte) 0xBC, (byte) 0xAF}},
+            {"rar", new byte[]{'R', 'a', 'r', '!'}},
+            {"elf", new byte[]{0x7F, 'E', 'L', 'F'}},
+            {"class", new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE}},
+            {"mach-o", new byte[]{(byte) 0xCF, (byte) 0xFA, (byte) 0xED, (byte) 0xFE}},
+            {"wasm", new byte[]{0, 'a', 's', 'm'}},
+            {"sqlite", new byte[]{'S', 'Q', 'L', 'i', 't', 'e', ' ', 'f', 'o', 'r', 'm', 'a', 't'}},
+            {"ogg", new byte[]{'O', 'g', 'g', 'S'}},
+            {"mp3", new byte[]{'I', 'D', '3'}},
+    };
+
+    private FileSniffer() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Sniff a file from its first {@link #PREFIX_BYTES} bytes
+     */
+    public static Result sniff(Path file) throws IOException {
+        byte[] prefix = readPrefix(file, PREFIX_BYTES);
+        return sniff(prefix, prefix.length);
+    }
+
+    /**
+     * Read up to {@code maxBytes} from the start of a file with a positional read
+     */
+    public static byte[] readPrefix(Path file, int maxBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(maxBytes, channel.size()));
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+                // keep reading until the prefix is full or the file ends
+            }
+            byte[] prefix = new byte[buffer.position()];
+            buffer.flip().get(prefix);
+            return prefix;
+        }
+    }
+
+    /**
+     * Sniff the first {@code length} bytes of a file's content
+     */
+    public static Result sniff(byte[] bytes, int length) {
+        length = Math.min(length, bytes.length);
+        if (startsWith(bytes, length, BOM_UTF8)) {
+            return Result.text(StandardCharsets.UTF_8, BOM_UTF8.length);
+        }
+        if (startsWith(bytes, length, BOM_UTF16LE)) {
+            return Result.text(StandardCharsets.UTF_16LE, BOM_UTF16LE.length);
+        }
+        if (startsWith(bytes, length, BOM_UTF16BE)) {
+            return Result.text(StandardCharsets.UTF_16BE, BOM_UTF16BE.length);
+        }
+        for (Object[] magic : MAGIC_NUMBERS) {
+            if (startsWith(bytes, length, (byte[]) magic[1])) {
+                return Result.binary((String) magic[0]);
+            }
+        }
+        int control = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = bytes[i];
+            if (b == 0) {
+                return Result.binary(null);
+            }
+            if (b >= 0 && b < 0x20 && b != '\n' && b != '\r' && b != '\t' && b != '\f' && b != 0x1B) {
+                control++;
+            }
+        }
+        if (length > 0 && control > length * MAX_CONTROL_RATIO) {
+            return Result.binary(null);
+        }
+        return Result.text(isUtf8(bytes, length) ? StandardCharsets.UTF_8 : LEGACY_CHARSET, 0);
+    }
+
+    /**
+     * Whether the bytes decode as UTF-8; a sequence cut off at the end of the prefix is allowed
+     */
+    private static boolean isUtf8(byte[] bytes, int length) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer in = ByteBuffer.wrap(bytes, 0, length);
+        CharBuffer out = CharBuffer.allocate(length);
+        CoderResult result = decoder.decode(in, out, false);
+        if (result.isError()) {
+            return false;
+        }
+        // Only an incomplete trailing sequence (at most 3 bytes) may remain undecoded
+        return in.remaining() < 4;
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sniffing result: binary with an optional format name, or text with its charset and BOM length
+     */
+    @Getter
+    public static final class Result {
+        private final boolean binary;
+        private final String format;
+        private final Charset charset;
+        private final int bomLength;
+
+        private Result(boolean binary, String format, Charset charset, int bomLength) {
+            this.binary = binary;
+            this.format = format;
+            this.charset = charset;
+            this.bomLength = bomLength;
+        }
+
+        static Result binary(String format) {
+            return new Result(true, format, null, 0);
+        }
+
+        static Result text(Charset charset, int bomLength) {
+            return new Result(false, null, charset, bomLength);
+        }
+    }
+}
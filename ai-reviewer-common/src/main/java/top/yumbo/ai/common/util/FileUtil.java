@@ -16,16 +16,29 @@ public final class FileUtil {
         throw new UnsupportedOperationException("Utility class");
     }
     /**
-     * Read file content as string
+     * Read file content as string, decoded with the charset sniffed from its first bytes
      */
     public static String readFileToString(File file) throws IOException {
-        return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        return readFileToString(file.toPath());
     }
     /**
-     * Read file content as string
+     * Read file content as string, decoded with the charset sniffed from its first bytes.
+     * A byte order mark is skipped; binary content is rejected before decoding.
      */
     public static String readFileToString(Path path) throws IOException {
-        return Files.readString(path, StandardCharsets.UTF_8);
+        byte[] bytes = Files.readAllBytes(path);
+        FileSniffer.Result sniffed = FileSniffer.sniff(bytes, FileSniffer.PREFIX_BYTES);
+        if (sniffed.isBinary()) {
+            throw new IOException("Not a text file: " + path
+                    + (sniffed.getFormat() != null ? " (" + sniffed.getFormat() + ")" : ""));
+        }
+        return new String(bytes, sniffed.getBomLength(), bytes.length - sniffed.getBomLength(), sniffed.getCharset());
+    }
+    /**
+     * Check whether a file is binary, reading only its first bytes
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        return FileSniffer.sniff(path).isBinary();
     }
     /**
      * Write string to file
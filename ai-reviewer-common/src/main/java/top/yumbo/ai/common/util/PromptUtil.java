@@ -0,0 +1,37 @@
+package top.yumbo.ai.common.util;
+/**
+ * Prompt template utility class.
+ * A user prompt template holds one {@code %s} placeholder for the project content; the text
+ * before it is static across requests and can be served from a provider's prompt cache.
+ */
+public final class PromptUtil {
+    public static final String PLACEHOLDER = "%s";
+    private PromptUtil() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+    /**
+     * Fill the template, replacing every placeholder with the content
+     * (replace instead of String.format so '%' and '+' in the prompt are kept literally)
+     */
+    public static String format(String template, String content) {
+        return template.replace(PLACEHOLDER, content);
+    }
+    /**
+     * Static part of the template before the first placeholder (the whole template if there is none)
+     */
+    public static String staticPrefix(String template) {
+        int index = template.indexOf(PLACEHOLDER);
+        return index < 0 ? template : template.substring(0, index);
+    }
+    /**
+     * Variable part of the filled prompt: the content followed by the rest of the template,
+     * so that {@code staticPrefix(template) + variablePart(template, content)} equals {@code format(template, content)}
+     */
+    public static String variablePart(String template, String content) {
+        int index = template.indexOf(PLACEHOLDER);
+        if (index < 0) {
+            return "";
+        }
+        return content + format(template.substring(index + PLACEHOLDER.length()), content);
+    }
+}
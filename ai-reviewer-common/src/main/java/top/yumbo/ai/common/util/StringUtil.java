@@ -34,4 +34,20 @@ public final class StringUtil {
     public static String trim(String str) {
         return str == null ? null : str.trim();
     }
+    /**
+     * Count lines without splitting; a trailing line break does not start another line
+     */
+    public static int countLines(CharSequence text) {
+        int n = text == null ? 0 : text.length();
+        if (n == 0) {
+            return 0;
+        }
+        int lines = 0;
+        for (int i = 0; i < n; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return text.charAt(n - 1) == '\n' ? lines : lines + 1;
+    }
 }
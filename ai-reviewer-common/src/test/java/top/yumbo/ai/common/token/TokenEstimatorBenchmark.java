@@ -0,0 +1,115 @@
+package top.yumbo.ai.common.token;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Accuracy and throughput benchmark for {@link TokenEstimator}.
+ * <p>
+ * Usage: {@code TokenEstimatorBenchmark [samples.csv] [sourceDir]}
+ * <ul>
+ *     <li>samples.csv: one past request per line as {@code model,inputTokens,promptFile}, where
+ *     inputTokens is {@code TokenUsage.inputTokens} reported for the prompt saved in promptFile</li>
+ *     <li>sourceDir: directory of source files used for the throughput run (default ".")</li>
+ * </ul>
+ */
+public class TokenEstimatorBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && !"-".equals(args[0])) {
+            accuracy(Paths.get(args[0]));
+        }
+        throughput(Paths.get(args.length > 1 ? args[1] : "."));
+    }
+
+    /**
+     * Compare estimates against actual input tokens per model family
+     */
+    private static void accuracy(Path samplesFile) throws IOException {
+        Map<TokenEstimator.ModelFamily, double[]> stats = new EnumMap<>(TokenEstimator.ModelFamily.class);
+        for (String line : Files.readAllLines(samplesFile, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(",", 3);
+            if (parts.length < 3 || line.startsWith("#") || !parts[1].trim().matches("\\d+")) {
+                continue;
+            }
+            Path promptFile = samplesFile.resolveSibling(parts[2].trim());
+            String prompt = Files.readString(promptFile, StandardCharsets.UTF_8);
+            int actual = Integer.parseInt(parts[1].trim());
+            TokenEstimator estimator = TokenEstimator.forModel(parts[0].trim());
+            int estimated = estimator.estimate(prompt);
+            int quick = TokenEstimator.quickEstimate(prompt);
+            // count, sum |err|, sum signed err, sum actual, sum estimated, sum |quick err|
+            double[] s = stats.computeIfAbsent(estimator.getFamily(), k -> new double[6]);
+            s[0]++;
+            s[1] += Math.abs(estimated - actual) / (double) actual;
+            s[2] += (estimated - actual) / (double) actual;
+            s[3] += actual;
+            s[4] += estimated;
+            s[5] += Math.abs(quick - actual) / (double) actual;
+        }
+        System.out.println("== Accuracy against reported input tokens ==");
+        System.out.printf("%-10s %8s %12s %10s %14s %14s%n",
+                "family", "samples", "mean |err|", "bias", "quick |err|", "suggested scale");
+        stats.forEach((family, s) -> System.out.printf("%-10s %8d %11.1f%% %9.1f%% %13.1f%% %14.3f%n",
+                family, (int) s[0], 100 * s[1] / s[0], 100 * s[2] / s[0], 100 * s[5] / s[0], s[3] / s[4]));
+    }
+
+    /**
+     * Measure estimation speed over every text file below the directory
+     */
+    private static void throughput(Path sourceDir) throws IOException {
+        List<String> contents = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(sourceDir)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                String name = path.getFileName().toString();
+                if (name.matches(".*\\.(java|py|js|ts|md|yml|yaml|xml|json|txt)$")) {
+                    try {
+                        contents.add(Files.readString(path, StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        // not UTF-8, skip
+                    }
+                }
+            }
+        }
+        long chars = contents.stream().mapToLong(String::length).sum();
+        System.out.printf("== Throughput over %d files, %d chars ==%n", contents.size(), chars);
+        for (TokenEstimator.ModelFamily family : TokenEstimator.ModelFamily.values()) {
+            TokenEstimator estimator = TokenEstimator.of(family);
+            report(family.name(), contents, chars, estimator::estimate);
+        }
+        report("quick", contents, chars, TokenEstimator::quickEstimate);
+    }
+
+    private static void report(String name, List<String> contents, long chars,
+                               ToIntFunction<String> estimate) {
+        long total = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (String content : contents) {
+                total += estimate.applyAsInt(content);
+            }
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            for (String content : contents) {
+                total += estimate.applyAsInt(content);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        double seconds = elapsed / 1e9;
+        System.out.printf("%-10s %10.1f Mchars/s %10.0f ns/file  (%d tokens per pass)%n", name,
+                chars * MEASURED_ROUNDS / seconds / 1e6,
+                contents.isEmpty() ? 0.0 : elapsed / (double) (MEASURED_ROUNDS * contents.size()),
+                total / (WARMUP_ROUNDS + MEASURED_ROUNDS));
+    }
+}
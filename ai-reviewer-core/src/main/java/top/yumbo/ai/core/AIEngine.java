@@ -2,21 +2,34 @@ package top.yumbo.ai.core;
 
 import lombok.extern.slf4j.Slf4j;
 import top.yumbo.ai.api.ai.IAIService;
+import top.yumbo.ai.api.ai.IStreamListener;
+import top.yumbo.ai.api.model.AIConfig;
 import top.yumbo.ai.api.model.AIResponse;
 import top.yumbo.ai.api.model.PreProcessedData;
 import top.yumbo.ai.api.model.ProcessResult;
 import top.yumbo.ai.api.parser.IFileParser;
 import top.yumbo.ai.api.processor.IResultProcessor;
 import top.yumbo.ai.common.exception.AIReviewerException;
+import top.yumbo.ai.common.token.TokenEstimator;
+import top.yumbo.ai.common.util.FileUtil;
+import top.yumbo.ai.common.util.StringUtil;
+import top.yumbo.ai.core.content.ContentArena;
+import top.yumbo.ai.core.content.ContentStore;
+import top.yumbo.ai.core.context.CancellationToken;
 import top.yumbo.ai.core.context.ExecutionContext;
 import top.yumbo.ai.core.filter.FileFilter;
+import top.yumbo.ai.core.filter.GeneratedFileDetector;
+import top.yumbo.ai.core.packing.PromptPacker;
 import top.yumbo.ai.core.registry.AdapterRegistry;
+import top.yumbo.ai.core.registry.ModelRoute;
 import top.yumbo.ai.core.scanner.FileScanner;
 
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
 
@@ -28,12 +41,18 @@ public class AIEngine {
     protected final AdapterRegistry registry;
     protected final FileScanner fileScanner;
     protected final FileFilter fileFilter;
+    protected final GeneratedFileDetector generatedFileDetector;
     protected ExecutorService executorService;
 
     public AIEngine(AdapterRegistry registry) {
         this.registry = registry;
         this.fileScanner = new FileScanner();
         this.fileFilter = new FileFilter();
+        this.generatedFileDetector = new GeneratedFileDetector();
+    }
+
+    public AdapterRegistry getRegistry() {
+        return registry;
     }
 
     /**
@@ -61,19 +80,22 @@ public class AIEngine {
             List<Path> filteredFiles = fileFilter.filter(files,
                     context.getIncludePatterns(),
                     context.getExcludePatterns());
+            if (context.isSkipGeneratedFiles()) {
+                filteredFiles = generatedFileDetector.filter(context.getTargetDirectory(), filteredFiles);
+            }
             long filterTimeMs = System.currentTimeMillis() - filterStartMs;
             log.debug("File filtering took {} ms", filterTimeMs);
 
             // Step 3: Parse files
             long parseStartMs = System.currentTimeMillis();
-            List<PreProcessedData> preprocessedDataList = parseFiles(filteredFiles);
+            List<PreProcessedData> preprocessedDataList = parseFiles(filteredFiles, context);
             long parseTimeMs = System.currentTimeMillis() - parseStartMs;
             context.setParsingTimeMs(parseTimeMs);
             log.info("File parsing took {} ms", parseTimeMs);
 
-            // Step 4: Invoke AI service
+            // Step 4: Invoke AI service (packed under the token budget if configured)
             long aiStartMs = System.currentTimeMillis();
-            List<AIResponse> aiResponses = invokeAI(preprocessedDataList, context);
+            List<AIResponse> aiResponses = invokeAI(packForInvocation(preprocessedDataList, context), context);
             long aiTimeMs = System.currentTimeMillis() - aiStartMs;
             context.setAiInvocationTimeMs(aiTimeMs);
             log.info("AI invocation took {} ms", aiTimeMs);
@@ -133,6 +155,8 @@ public class AIEngine {
             if (executorService != null) {
                 executorService.shutdown();
             }
+            closeContentStore(context);
+            closeContentArena(context);
         }
     }
 
@@ -140,14 +164,43 @@ public class AIEngine {
      * Parse files using registered parsers
      */
     public List<PreProcessedData> parseFiles(List<Path> files) throws InterruptedException, ExecutionException {
+        return parseFiles(files, null);
+    }
+
+    /**
+     * Parse files using registered parsers and record each file's estimated token count
+     * for the model configured in the context
+     */
+    public List<PreProcessedData> parseFiles(List<Path> files, ExecutionContext context) throws InterruptedException, ExecutionException {
         log.info("Parsing {} files", files.size());
+        TokenEstimator tokenEstimator = tokenEstimator(context);
+        ExecutorService executor = executor(context);
+        ContentArena contentArena = contentArena(context);
+        ContentStore contentStore = contentArena == null ? contentStore(context) : null;
         List<Future<PreProcessedData>> futures = new ArrayList<>();
         for (Path file : files) {
-            Future<PreProcessedData> future = executorService.submit(() -> {
+            Future<PreProcessedData> future = executor.submit(() -> {
                 IFileParser parser = registry.getParser(file.toFile())
                         .orElseThrow(() -> new AIReviewerException("No parser found for file: " + file));
                 try {
-                    return parser.parse(file.toFile());
+                    // A binary costs one prefix read instead of a full read and a decoding failure
+                    if (FileUtil.isBinary(file)) {
+                        log.debug("Skipping binary file: {}", file);
+                        return null;
+                    }
+                    PreProcessedData data = parser.parse(file.toFile());
+                    if (data != null && data.getEstimatedTokens() == null) {
+                        data.setEstimatedTokens(tokenEstimator.estimate(data.getContent()));
+                    }
+                    if (data != null && data.getMetadata() != null && data.getMetadata().getLineCount() == null) {
+                        data.getMetadata().setLineCount(StringUtil.countLines(data.getContent()));
+                    }
+                    if (contentArena != null) {
+                        contentArena.moveIn(data);
+                    } else if (contentStore != null) {
+                        contentStore.admit(data);
+                    }
+                    return data;
                 } catch (Exception e) {
                     log.error("Failed to parse file: {}", file, e);
                     throw new AIReviewerException("Parse failed: " + file, e);
@@ -158,7 +211,10 @@ public class AIEngine {
         List<PreProcessedData> results = new ArrayList<>();
         for (Future<PreProcessedData> future : futures) {
             try {
-                results.add(future.get());
+                PreProcessedData data = future.get();
+                if (data != null) {
+                    results.add(data);
+                }
             } catch (Exception e) {
                 log.error("Failed to get parse result", e);
             }
@@ -167,37 +223,251 @@ public class AIEngine {
         return results;
     }
 
+    /**
+     * Pack parsed files into requests under the context's token budget.
+     * Returns the list unchanged when no budget is configured.
+     */
+    public List<PreProcessedData> packForInvocation(List<PreProcessedData> dataList, ExecutionContext context) {
+        Integer budget = context.getPromptTokenBudget();
+        if (budget == null || budget <= 0) {
+            return dataList;
+        }
+        // Every request repeats the system prompt and the user prompt template
+        TokenEstimator tokenEstimator = tokenEstimator(context);
+        int templateTokens = tokenEstimator.estimate(context.getAiConfig().getSysPrompt())
+                + tokenEstimator.estimate(context.getAiConfig().getUserPrompt());
+        int contentBudget = budget - templateTokens;
+        if (contentBudget < budget / 4) {
+            log.warn("Prompt template uses {} of {} budget tokens, packing with {} tokens for content",
+                    templateTokens, budget, budget / 4);
+            contentBudget = budget / 4;
+        }
+        return new PromptPacker(contentBudget, context.getChunkOverlapTokens(), tokenEstimator).pack(dataList);
+    }
+
+    /**
+     * Content store of the execution, created on first use when a memory budget is configured
+     */
+    protected ContentStore contentStore(ExecutionContext context) {
+        if (context == null || context.getContentMemoryBudget() == null) {
+            return null;
+        }
+        synchronized (context) {
+            if (context.getContentStore() == null) {
+                context.setContentStore(new ContentStore(context.getContentMemoryBudget()));
+            }
+            return context.getContentStore();
+        }
+    }
+
+    /**
+     * Close the execution's content store once its parsed content is no longer needed
+     */
+    protected void closeContentStore(ExecutionContext context) {
+        if (context != null && context.getContentStore() != null) {
+            context.getContentStore().close();
+            context.setContentStore(null);
+        }
+    }
+
+    /**
+     * Off-heap content arena of the execution, created on first use when off-heap content is enabled
+     */
+    protected ContentArena contentArena(ExecutionContext context) {
+        if (context == null || !context.isOffHeapContent()) {
+            return null;
+        }
+        synchronized (context) {
+            if (context.getContentArena() == null) {
+                context.setContentArena(new ContentArena());
+            }
+            return context.getContentArena();
+        }
+    }
+
+    /**
+     * Release the execution's off-heap content; data and prompts stored in it can no longer be read
+     */
+    public void closeContentArena(ExecutionContext context) {
+        if (context != null && context.getContentArena() != null) {
+            context.getContentArena().close();
+            context.setContentArena(null);
+        }
+    }
+
+    /**
+     * Release the execution's off-heap content while calls may still be reading it; its memory is
+     * not reused, see {@link ContentArena#discard()}
+     */
+    public void discardContentArena(ExecutionContext context) {
+        if (context != null && context.getContentArena() != null) {
+            context.getContentArena().discard();
+            context.setContentArena(null);
+        }
+    }
+
+    /**
+     * Executor for the given execution: the context's own pool when set, so concurrent
+     * executions on a shared engine do not replace each other's pool, otherwise the engine's
+     */
+    protected ExecutorService executor(ExecutionContext context) {
+        if (context != null && context.getExecutorService() != null) {
+            return context.getExecutorService();
+        }
+        return executorService;
+    }
+
+    /**
+     * Token estimator matching the model configured in the context
+     */
+    protected TokenEstimator tokenEstimator(ExecutionContext context) {
+        if (context == null || context.getAiConfig() == null) {
+            return TokenEstimator.of(TokenEstimator.ModelFamily.GENERIC);
+        }
+        return TokenEstimator.forModel(context.getAiConfig().getModel());
+    }
+
     /**
      * Invoke AI service
      */
     public List<AIResponse> invokeAI(List<PreProcessedData> dataList, ExecutionContext context)
             throws InterruptedException, ExecutionException {
+        return invokeAIAsync(dataList, context).get();
+    }
+
+    /**
+     * Invoke AI service for every item without blocking a thread per request.
+     * Each item is routed to a provider and model by the config's routing rules.
+     * Failed invocations are logged and left out of the result.
+     */
+    public CompletableFuture<List<AIResponse>> invokeAIAsync(List<PreProcessedData> dataList, ExecutionContext context) {
         log.info("Invoking AI service for {} items", dataList.size());
-        IAIService aiService = registry.getAIService(context.getAiConfig().getProvider())
+        // The default service is needed for unrouted requests and for escalation
+        registry.getAIService(context.getAiConfig().getProvider())
                 .orElseThrow(() -> new AIReviewerException("AI service not found: " +
                         context.getAiConfig().getProvider()));
-        List<Future<AIResponse>> futures = new ArrayList<>();
+        List<CompletableFuture<AIResponse>> futures = new ArrayList<>();
         for (PreProcessedData data : dataList) {
-            Future<AIResponse> future = executorService.submit(() -> {
-                try {
-                    return aiService.invoke(data, context.getAiConfig());
-                } catch (Exception e) {
-                    log.error("AI invocation failed", e);
-                    throw new AIReviewerException("AI invocation failed", e);
-                }
-            });
-            futures.add(future);
+            futures.add(invokeRouted(data, context)
+                    .thenApply(response -> mapToSources(data, response))
+                    .exceptionally(e -> {
+                        if (isCancelled(context)) {
+                            log.info("AI invocation cancelled: {}", context.getExecutionId());
+                        } else {
+                            log.error("AI invocation failed", e);
+                        }
+                        return null;
+                    }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<AIResponse> results = new ArrayList<>();
+                    for (CompletableFuture<AIResponse> future : futures) {
+                        AIResponse response = future.join();
+                        if (response != null) {
+                            results.add(response);
+                        }
+                    }
+                    log.info("Received {} AI responses", results.size());
+                    return results;
+                });
+    }
+
+    /**
+     * Invoke the routed model; a cascading route whose call fails or whose response the
+     * context rejects is escalated to the default provider and model
+     */
+    protected CompletableFuture<AIResponse> invokeRouted(PreProcessedData data, ExecutionContext context) {
+        ModelRoute route = registry.route(data, context.getAiConfig());
+        CompletableFuture<AIResponse> future = invokeAsync(route.getService(), data, route.getConfig(), context);
+        if (!route.isCascading()) {
+            return future;
         }
-        List<AIResponse> results = new ArrayList<>();
-        for (Future<AIResponse> future : futures) {
+        return future.handle((response, error) -> {
+            if (error == null && isAccepted(response, context)) {
+                return CompletableFuture.completedFuture(response);
+            }
+            if (isCancelled(context)) {
+                return CompletableFuture.<AIResponse>failedFuture(new CancellationException("AI invocation cancelled"));
+            }
+            log.info("Escalating from {} (rule {}) to {}: {}", route.getConfig().getModel(), route.getRule().getName(),
+                    context.getAiConfig().getModel(), error != null ? error.getMessage() : "response rejected");
+            AIConfig escalated = context.getAiConfig().toBuilder().routing(null).build();
+            return registry.getAIService(escalated.getProvider())
+                    .map(service -> invokeAsync(service, data, escalated, context))
+                    .orElseGet(() -> CompletableFuture.failedFuture(
+                            new AIReviewerException("AI service not found: " + escalated.getProvider())))
+                    .thenApply(escalatedResponse -> {
+                        markEscalated(escalatedResponse, route);
+                        return escalatedResponse;
+                    });
+        }).thenCompose(next -> next);
+    }
+
+    private boolean isAccepted(AIResponse response, ExecutionContext context) {
+        if (response == null || response.getContent() == null || response.getContent().isBlank()) {
+            return false;
+        }
+        return context.getResponseValidator() == null || context.getResponseValidator().test(response);
+    }
+
+    private void markEscalated(AIResponse response, ModelRoute route) {
+        if (response == null) {
+            return;
+        }
+        Map<String, Object> metadata = response.getMetadata() != null
+                ? new HashMap<>(response.getMetadata()) : new HashMap<>();
+        metadata.put("escalatedFrom", route.getConfig().getModel());
+        response.setMetadata(metadata);
+    }
+
+    /**
+     * Start a single AI invocation, streaming when the context carries a listener
+     */
+    protected CompletableFuture<AIResponse> invokeAsync(IAIService aiService, PreProcessedData data,
+                                                        AIConfig config, ExecutionContext context) {
+        CancellationToken cancellationToken = context.getCancellationToken();
+        IStreamListener streamListener = context.getStreamListeners() != null ? context.getStreamListeners().get() : null;
+        if (streamListener == null) {
+            CompletableFuture<AIResponse> call = aiService.invokeAsync(data, config, executor(context));
+            return cancellationToken != null ? cancellationToken.register(call) : call;
+        }
+        // A blocking stream is not interrupted by cancelling its future; the listener stops it instead
+        IStreamListener listener = cancellationToken == null ? streamListener
+                : delta -> !cancellationToken.isCancelled() && streamListener.onDelta(delta);
+        CompletableFuture<AIResponse> call = CompletableFuture.supplyAsync(() -> {
             try {
-                results.add(future.get());
+                return aiService.invokeStream(data, config, listener);
             } catch (Exception e) {
-                log.error("Failed to get AI response", e);
+                throw new AIReviewerException("AI invocation failed", e);
             }
+        }, executor(context));
+        return cancellationToken != null ? cancellationToken.register(call) : call;
+    }
+
+    private static boolean isCancelled(ExecutionContext context) {
+        return context.getCancellationToken() != null && context.getCancellationToken().isCancelled();
+    }
+
+    /**
+     * Record which source files (and which chunk) a response covers
+     */
+    protected AIResponse mapToSources(PreProcessedData data, AIResponse response) {
+        if (response == null || data.getContext() == null
+                || !data.getContext().containsKey(PromptPacker.CONTEXT_SOURCE_FILES)) {
+            return response;
         }
-        log.info("Received {} AI responses", results.size());
-        return results;
+        Map<String, Object> metadata = response.getMetadata() != null
+                ? new HashMap<>(response.getMetadata()) : new HashMap<>();
+        for (String key : List.of(PromptPacker.CONTEXT_SOURCE_FILES,
+                PromptPacker.CONTEXT_CHUNK_INDEX, PromptPacker.CONTEXT_CHUNK_COUNT)) {
+            Object value = data.getContext().get(key);
+            if (value != null) {
+                metadata.put(key, value);
+            }
+        }
+        response.setMetadata(metadata);
+        return response;
     }
 
     /**
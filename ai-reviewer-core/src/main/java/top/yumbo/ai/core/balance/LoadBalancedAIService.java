@@ -0,0 +1,417 @@
+package top.yumbo.ai.core.balance;
+
+import lombok.extern.slf4j.Slf4j;
+import top.yumbo.ai.api.ai.IAIService;
+import top.yumbo.ai.api.ai.IStreamListener;
+import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.AIEndpoint;
+import top.yumbo.ai.api.model.AIResponse;
+import top.yumbo.ai.api.model.PreProcessedData;
+import top.yumbo.ai.common.exception.AIServiceException;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * AI service spreading requests across several endpoints (regions, URLs or accounts) of one provider.
+ * Each request goes to an endpoint picked at random, weighted by its configured weight, the
+ * inverse of its observed latency (EWMA) and its remaining per-minute quota. A throttled
+ * endpoint cools down for a while. A request failing with a timeout, throttling or a server
+ * error is retried once on each other endpoint; client errors fail the request at once.
+ */
+@Slf4j
+public class LoadBalancedAIService implements IAIService {
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final double DEFAULT_LATENCY_MS = 5_000;
+    private static final long THROTTLE_COOLDOWN_MS = 30_000;
+    private static final long QUOTA_WINDOW_MS = 60_000;
+    private static final Pattern THROTTLE_PATTERN =
+            Pattern.compile("throttl|too ?many ?requests|rate ?limit|quota|\\b429\\b");
+    /**
+     * Exception class names of timeouts and server-side failures, e.g. the Bedrock SDK's
+     */
+    private static final Pattern TRANSIENT_NAME_PATTERN =
+            Pattern.compile("timeout|serviceunavailable|internalserver|modelnotready|toomanyrequests");
+
+    private final String providerName;
+    private final String defaultModel;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+
+    /**
+     * @param config         provider configuration with at least one entry in {@link AIConfig#getEndpoints()}
+     * @param serviceFactory creates the service for one endpoint from its effective configuration
+     */
+    public LoadBalancedAIService(AIConfig config, Function<AIConfig, IAIService> serviceFactory) {
+        if (config.getEndpoints() == null || config.getEndpoints().isEmpty()) {
+            throw new IllegalArgumentException("No endpoints configured for provider " + config.getProvider());
+        }
+        this.providerName = config.getProvider();
+        this.defaultModel = config.getModel();
+        for (AIEndpoint spec : config.getEndpoints()) {
+            AIConfig endpointConfig = applyEndpoint(config, spec);
+            endpoints.add(new Endpoint(spec, serviceFactory.apply(endpointConfig)));
+        }
+        log.info("Balancing {} across {} endpoints: {}", providerName, endpoints.size(),
+                endpoints.stream().map(endpoint -> endpoint.name).toList());
+    }
+
+    /**
+     * Create the service for the configuration: balanced when endpoints are configured, a plain one otherwise
+     */
+    public static IAIService create(AIConfig config, Function<AIConfig, IAIService> serviceFactory) {
+        if (config.getEndpoints() == null || config.getEndpoints().isEmpty()) {
+            return serviceFactory.apply(config);
+        }
+        return new LoadBalancedAIService(config, serviceFactory);
+    }
+
+    @Override
+    public AIResponse invoke(PreProcessedData data, AIConfig config) throws Exception {
+        Set<Endpoint> tried = ConcurrentHashMap.newKeySet();
+        while (true) {
+            Endpoint endpoint = select(tried);
+            tried.add(endpoint);
+            long start = endpoint.dispatched(data);
+            try {
+                AIResponse response = endpoint.service.invoke(data, endpoint.configure(config));
+                endpoint.succeeded(start, response);
+                return response;
+            } catch (Exception e) {
+                endpoint.failed(e);
+                if (tried.size() >= endpoints.size() || !isTransient(e)) {
+                    throw e;
+                }
+                log.warn("Endpoint {} failed ({}), retrying on another endpoint", endpoint.name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cancelling the returned future cancels the endpoint call in flight and stops failing over
+     */
+    @Override
+    public CompletableFuture<AIResponse> invokeAsync(PreProcessedData data, AIConfig config, Executor executor) {
+        CompletableFuture<AIResponse> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<AIResponse>> inFlight = new AtomicReference<>();
+        result.whenComplete((ignored, error) -> {
+            CompletableFuture<AIResponse> call = inFlight.get();
+            if (result.isCancelled() && call != null) {
+                call.cancel(true);
+            }
+        });
+        attemptAsync(data, config, executor, ConcurrentHashMap.newKeySet(), result, inFlight);
+        return result;
+    }
+
+    private void attemptAsync(PreProcessedData data, AIConfig config, Executor executor, Set<Endpoint> tried,
+                              CompletableFuture<AIResponse> result,
+                              AtomicReference<CompletableFuture<AIResponse>> inFlight) {
+        Endpoint endpoint = select(tried);
+        tried.add(endpoint);
+        long start = endpoint.dispatched(data);
+        CompletableFuture<AIResponse> call = endpoint.service.invokeAsync(data, endpoint.configure(config), executor);
+        inFlight.set(call);
+        // Cancelled before the call was recorded: the cancel handler may have missed it
+        if (result.isCancelled()) {
+            call.cancel(true);
+        }
+        call.whenComplete((response, error) -> {
+            if (error == null) {
+                endpoint.succeeded(start, response);
+                result.complete(response);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            endpoint.failed(cause);
+            if (result.isDone()) {
+                return;
+            }
+            if (tried.size() >= endpoints.size() || !isTransient(cause)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            log.warn("Endpoint {} failed ({}), retrying on another endpoint", endpoint.name, cause.getMessage());
+            try {
+                attemptAsync(data, config, executor, tried, result, inFlight);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Streams are not retried: deltas may already have reached the listener
+     */
+    @Override
+    public AIResponse invokeStream(PreProcessedData data, AIConfig config, IStreamListener listener) throws Exception {
+        Endpoint endpoint = select(Set.of());
+        long start = endpoint.dispatched(data);
+        try {
+            AIResponse response = endpoint.service.invokeStream(data, endpoint.configure(config), listener);
+            endpoint.succeeded(start, response);
+            return response;
+        } catch (Exception e) {
+            endpoint.failed(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return endpoints.stream().allMatch(endpoint -> endpoint.service.supportsStreaming());
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return endpoints.stream().anyMatch(endpoint -> endpoint.service.isAvailable());
+    }
+
+    @Override
+    public String getProviderName() {
+        return providerName;
+    }
+
+    @Override
+    public String[] getSupportedModels() {
+        return endpoints.get(0).service.getSupportedModels();
+    }
+
+    /**
+     * Latency, quota and error statistics per endpoint
+     *
+     * @return statistics by endpoint name
+     */
+    public Map<String, Map<String, Object>> metrics() {
+        Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            metrics.put(endpoint.name, endpoint.metrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Weighted random choice among endpoints not yet tried, preferring those not cooling down
+     */
+    private Endpoint select(Set<Endpoint> excluded) {
+        long now = System.currentTimeMillis();
+        List<Endpoint> candidates = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            if (!excluded.contains(endpoint) && !endpoint.isCoolingDown(now)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            for (Endpoint endpoint : endpoints) {
+                if (!excluded.contains(endpoint)) {
+                    candidates.add(endpoint);
+                }
+            }
+        }
+        // Endpoints without a measurement are assumed as fast as the fastest one, so they get tried
+        double unmeasuredLatency = DEFAULT_LATENCY_MS;
+        for (Endpoint endpoint : endpoints) {
+            double latency = endpoint.latency();
+            if (latency > 0) {
+                unmeasuredLatency = Math.min(unmeasuredLatency, latency);
+            }
+        }
+        double[] scores = new double[candidates.size()];
+        double total = 0;
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = candidates.get(i).score(now, unmeasuredLatency);
+            total += scores[i];
+        }
+        if (total <= 0) {
+            // Every quota is used up: spread evenly and let the provider decide
+            return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        }
+        double pick = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < scores.length; i++) {
+            pick -= scores[i];
+            if (pick < 0) {
+                return candidates.get(i);
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    private static AIConfig applyEndpoint(AIConfig config, AIEndpoint spec) {
+        return config.toBuilder()
+                .region(spec.getRegion() != null ? spec.getRegion() : config.getRegion())
+                .endpoint(spec.getEndpoint() != null ? spec.getEndpoint() : config.getEndpoint())
+                .apiKey(spec.getApiKey() != null ? spec.getApiKey() : config.getApiKey())
+                .model(spec.getModel() != null ? spec.getModel() : config.getModel())
+                .endpoints(null)
+                .build();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Whether another endpoint may succeed where this one failed: timeouts, throttling (429) and
+     * server errors (5xx). A bad request, an oversized prompt or a rejected key fails the same way
+     * on every endpoint, so it is not retried.
+     */
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof AIServiceException serviceError && serviceError.getStatusCode() != null) {
+                int status = serviceError.getStatusCode();
+                return status == 408 || status == 429 || status >= 500;
+            }
+            if (cause instanceof SocketTimeoutException || cause instanceof TimeoutException) {
+                return true;
+            }
+            if (TRANSIENT_NAME_PATTERN.matcher(cause.getClass().getSimpleName().toLowerCase(Locale.ROOT)).find()) {
+                return true;
+            }
+        }
+        return isThrottled(error);
+    }
+
+    private static boolean isThrottled(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            String text = (cause.getClass().getSimpleName() + " " + Objects.toString(cause.getMessage(), ""))
+                    .toLowerCase(Locale.ROOT);
+            if (THROTTLE_PATTERN.matcher(text).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One endpoint with its service and observed behaviour
+     */
+    private class Endpoint {
+        private final AIEndpoint spec;
+        private final IAIService service;
+        private final String name;
+        private final double weight;
+        private double latencyMs = -1;
+        private long cooldownUntil;
+        private long windowStart;
+        private int windowRequests;
+        private long windowTokens;
+        private long requests;
+        private long failures;
+        private long throttles;
+
+        private Endpoint(AIEndpoint spec, IAIService service) {
+            this.spec = spec;
+            this.service = service;
+            this.name = spec.getName() != null ? spec.getName()
+                    : spec.getRegion() != null ? spec.getRegion()
+                    : spec.getEndpoint() != null ? spec.getEndpoint() : "endpoint-" + endpoints.size();
+            this.weight = spec.getWeight() != null && spec.getWeight() > 0 ? spec.getWeight() : 1.0;
+        }
+
+        /**
+         * Per-call configuration; the endpoint's model replaces only the provider's default model,
+         * a model chosen by routing is kept
+         */
+        private AIConfig configure(AIConfig config) {
+            AIConfig configured = applyEndpoint(config, spec);
+            if (spec.getModel() != null && !Objects.equals(config.getModel(), defaultModel)) {
+                configured.setModel(config.getModel());
+            }
+            return configured;
+        }
+
+        private synchronized long dispatched(PreProcessedData data) {
+            long now = System.currentTimeMillis();
+            rollWindow(now);
+            requests++;
+            windowRequests++;
+            if (data.getEstimatedTokens() != null) {
+                windowTokens += data.getEstimatedTokens();
+            }
+            return now;
+        }
+
+        private synchronized void succeeded(long start, AIResponse response) {
+            long elapsed = Math.max(1, System.currentTimeMillis() - start);
+            latencyMs = latencyMs < 0 ? elapsed : LATENCY_SMOOTHING * elapsed + (1 - LATENCY_SMOOTHING) * latencyMs;
+            if (response != null && response.getTokenUsage() != null && response.getTokenUsage().getOutputTokens() != null) {
+                windowTokens += response.getTokenUsage().getOutputTokens();
+            }
+        }
+
+        private synchronized void failed(Throwable error) {
+            failures++;
+            if (isThrottled(error)) {
+                throttles++;
+                cooldownUntil = System.currentTimeMillis() + THROTTLE_COOLDOWN_MS;
+                log.warn("Endpoint {} throttled, cooling down for {} s", name, THROTTLE_COOLDOWN_MS / 1000);
+            }
+        }
+
+        private synchronized boolean isCoolingDown(long now) {
+            return now < cooldownUntil;
+        }
+
+        private synchronized double latency() {
+            return latencyMs;
+        }
+
+        /**
+         * Selection weight: configured weight x remaining quota share / latency
+         */
+        private synchronized double score(long now, double unmeasuredLatency) {
+            rollWindow(now);
+            double remaining = 1.0;
+            if (spec.getRequestsPerMinute() != null && spec.getRequestsPerMinute() > 0) {
+                remaining = Math.min(remaining, 1.0 - (double) windowRequests / spec.getRequestsPerMinute());
+            }
+            if (spec.getTokensPerMinute() != null && spec.getTokensPerMinute() > 0) {
+                remaining = Math.min(remaining, 1.0 - (double) windowTokens / spec.getTokensPerMinute());
+            }
+            if (remaining <= 0) {
+                return 0;
+            }
+            double latency = latencyMs > 0 ? latencyMs : unmeasuredLatency;
+            return weight * remaining * 1000.0 / latency;
+        }
+
+        private void rollWindow(long now) {
+            if (now - windowStart >= QUOTA_WINDOW_MS) {
+                windowStart = now;
+                windowRequests = 0;
+                windowTokens = 0;
+            }
+        }
+
+        private synchronized Map<String, Object> metrics() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("latencyMs", latencyMs < 0 ? null : Math.round(latencyMs));
+            values.put("requests", requests);
+            values.put("failures", failures);
+            values.put("throttles", throttles);
+            values.put("windowRequests", windowRequests);
+            values.put("windowTokens", windowTokens);
+            values.put("coolingDown", System.currentTimeMillis() < cooldownUntil);
+            return values;
+        }
+    }
+}
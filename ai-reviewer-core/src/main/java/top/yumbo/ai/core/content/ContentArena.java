@@ -0,0 +1,430 @@
+package top.yumbo.ai.core.content;
+
+import lombok.extern.slf4j.Slf4j;
+import top.yumbo.ai.api.model.ContentHandle;
+import top.yumbo.ai.api.model.PreProcessedData;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Off-heap store for the content of one execution: parsed files and assembled prompts.
+ * Content is kept as UTF-8 in direct buffer segments, out of the garbage collector's view,
+ * and read back through {@link Entry#load()}, {@link Entry#openReader()} or copied between
+ * entries without decoding. Closing the arena returns its segments to a shared pool, so
+ * batch reviews reuse the same native memory instead of allocating it per project.
+ */
+@Slf4j
+public class ContentArena implements AutoCloseable {
+    /**
+     * Size of a segment; entries larger than a segment span several segments
+     */
+    public static final int DEFAULT_SEGMENT_BYTES = 4 * 1024 * 1024;
+    /**
+     * Segments kept in the shared pool for later arenas
+     */
+    private static final int MAX_POOLED_SEGMENTS = 32;
+    /**
+     * Bytes claimed at a time by a writer whose final size is unknown
+     */
+    private static final int WRITER_BLOCK_BYTES = 64 * 1024;
+    /**
+     * Room for the longest encoded character; smaller remainders of a segment are abandoned
+     */
+    private static final int MIN_BLOCK_BYTES = 16;
+
+    private static final Deque<ByteBuffer> POOL = new ConcurrentLinkedDeque<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    private final int segmentBytes;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private ByteBuffer current;
+    private ByteBuffer lastBlock;
+    private int lastBlockOffset;
+    private long usedBytes;
+    private volatile boolean closed;
+
+    public ContentArena() {
+        this(DEFAULT_SEGMENT_BYTES);
+    }
+
+    public ContentArena(int segmentBytes) {
+        if (segmentBytes < MIN_BLOCK_BYTES) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentBytes);
+        }
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Copy the text into the arena
+     */
+    public Entry store(CharSequence text) {
+        EntryWriter writer = new EntryWriter(Math.max(MIN_BLOCK_BYTES, Math.min(text.length(), segmentBytes)));
+        writer.append(text);
+        return writer.finish();
+    }
+
+    /**
+     * Move the content of parsed data into the arena; the data keeps only a handle to it
+     */
+    public void moveIn(PreProcessedData data) {
+        if (data == null || !data.isContentLoaded()) {
+            return;
+        }
+        data.setContentHandle(store(data.getContent()));
+        data.releaseContent();
+    }
+
+    /**
+     * Writer assembling one entry from several pieces, e.g. the sections of a prompt
+     */
+    public EntryWriter newWriter() {
+        return new EntryWriter(WRITER_BLOCK_BYTES);
+    }
+
+    /**
+     * Bytes of native memory held by the arena
+     */
+    public synchronized long getAllocatedBytes() {
+        return (long) segments.size() * segmentBytes;
+    }
+
+    /**
+     * Bytes of content stored in the arena
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Release the segments; entries of the arena can no longer be read
+     */
+    @Override
+    public void close() {
+        release(true);
+    }
+
+    /**
+     * Release the segments without returning them to the pool, for when a reader may still be
+     * copying out of them: their memory is freed by the garbage collector once nothing holds them,
+     * instead of being handed to another arena and overwritten under the reader
+     */
+    public void discard() {
+        release(false);
+    }
+
+    private synchronized void release(boolean reuse) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!segments.isEmpty()) {
+            log.debug("Content arena {} {} segments holding {} bytes", reuse ? "released" : "discarded",
+                    segments.size(), usedBytes);
+        }
+        for (ByteBuffer segment : segments) {
+            if (!reuse || segment.capacity() != DEFAULT_SEGMENT_BYTES) {
+                continue;
+            }
+            if (POOLED.incrementAndGet() <= MAX_POOLED_SEGMENTS) {
+                POOL.push(segment.clear());
+            } else {
+                // Left to the garbage collector, which frees its native memory
+                POOLED.decrementAndGet();
+            }
+        }
+        segments.clear();
+        current = null;
+        lastBlock = null;
+    }
+
+    /**
+     * Claim a block of at least {@code minBytes} and at most {@code preferredBytes}
+     */
+    private synchronized ByteBuffer claim(int minBytes, int preferredBytes) {
+        checkOpen();
+        if (current == null || current.remaining() < minBytes) {
+            current = newSegment();
+            segments.add(current);
+        }
+        int size = Math.min(preferredBytes, current.remaining());
+        lastBlockOffset = current.position();
+        lastBlock = current.slice(lastBlockOffset, size);
+        current.position(lastBlockOffset + size);
+        return lastBlock;
+    }
+
+    /**
+     * Record the bytes used of a block and give its unused tail back when nothing was claimed after it
+     */
+    private synchronized void giveBack(ByteBuffer block, int used) {
+        usedBytes += used;
+        if (block == lastBlock && current != null) {
+            current.position(lastBlockOffset + used);
+            lastBlock = null;
+        }
+    }
+
+    private ByteBuffer newSegment() {
+        if (segmentBytes == DEFAULT_SEGMENT_BYTES) {
+            ByteBuffer pooled = POOL.poll();
+            if (pooled != null) {
+                POOLED.decrementAndGet();
+                return pooled;
+            }
+        }
+        return ByteBuffer.allocateDirect(segmentBytes);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Content arena is closed");
+        }
+    }
+
+    /**
+     * Content stored in the arena, valid until the arena is closed
+     */
+    public final class Entry implements ContentHandle {
+        private final List<ByteBuffer> slices;
+        private final int length;
+        private final long byteLength;
+
+        private Entry(List<ByteBuffer> slices, int length, long byteLength) {
+            this.slices = slices;
+            this.length = length;
+            this.byteLength = byteLength;
+        }
+
+        /**
+         * Length in characters
+         */
+        public int length() {
+            return length;
+        }
+
+        /**
+         * Length in UTF-8 bytes
+         */
+        public long byteLength() {
+            return byteLength;
+        }
+
+        /**
+         * Decode the content to a string
+         */
+        @Override
+        public String load() {
+            checkOpen();
+            CharBuffer out = CharBuffer.allocate(length);
+            CharsetDecoder decoder = newDecoder();
+            for (ByteBuffer slice : slices) {
+                decoder.reset();
+                decoder.decode(slice.duplicate(), out, true);
+                decoder.flush(out);
+            }
+            return out.flip().toString();
+        }
+
+        /**
+         * Reader decoding the content piece by piece, without materializing it
+         */
+        @Override
+        public Reader openReader() {
+            checkOpen();
+            return new EntryReader(slices);
+        }
+
+        private ContentArena arena() {
+            return ContentArena.this;
+        }
+    }
+
+    /**
+     * Encodes pieces of text into blocks of the arena.
+     * Blocks always end on a character boundary, so each block decodes on its own.
+     */
+    public final class EntryWriter {
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final List<ByteBuffer> slices = new ArrayList<>();
+        private int preferredBlockBytes;
+        private ByteBuffer block;
+        private int length;
+        private long byteLength;
+        private boolean finished;
+
+        private EntryWriter(int preferredBlockBytes) {
+            this.preferredBlockBytes = preferredBlockBytes;
+        }
+
+        /**
+         * Append text; each piece is encoded on its own, so a surrogate pair split
+         * between two pieces is replaced
+         */
+        public EntryWriter append(CharSequence text) {
+            checkWritable();
+            if (text == null || text.length() == 0) {
+                return this;
+            }
+            CharBuffer in = CharBuffer.wrap(text);
+            encoder.reset();
+            while (true) {
+                ensureBlock();
+                CoderResult result = encoder.encode(in, block, true);
+                if (result.isOverflow()) {
+                    nextBlock();
+                    continue;
+                }
+                if (encoder.flush(block).isOverflow()) {
+                    nextBlock();
+                    continue;
+                }
+                break;
+            }
+            length += text.length();
+            return this;
+        }
+
+        /**
+         * Append an entry of the same arena by copying its bytes, without decoding them
+         */
+        public EntryWriter append(Entry entry) {
+            checkWritable();
+            if (entry.arena() != ContentArena.this) {
+                return append(entry.load());
+            }
+            for (ByteBuffer slice : entry.slices) {
+                ByteBuffer source = slice.duplicate();
+                while (source.hasRemaining()) {
+                    ensureBlock();
+                    int count = Math.min(source.remaining(), block.remaining());
+                    if (count < source.remaining()) {
+                        // Cut before a UTF-8 continuation byte so the block ends on a character boundary
+                        while (count > 0 && (source.get(source.position() + count) & 0xC0) == 0x80) {
+                            count--;
+                        }
+                        if (count == 0) {
+                            nextBlock();
+                            continue;
+                        }
+                    }
+                    block.put(block.position(), source, source.position(), count);
+                    block.position(block.position() + count);
+                    source.position(source.position() + count);
+                }
+            }
+            length += entry.length;
+            return this;
+        }
+
+        /**
+         * Complete the entry; the writer cannot be used afterwards
+         */
+        public Entry finish() {
+            checkWritable();
+            finished = true;
+            closeBlock();
+            return new Entry(Collections.unmodifiableList(slices), length, byteLength);
+        }
+
+        private void ensureBlock() {
+            if (block == null || block.remaining() < MIN_BLOCK_BYTES) {
+                nextBlock();
+            }
+        }
+
+        private void nextBlock() {
+            closeBlock();
+            block = claim(MIN_BLOCK_BYTES, preferredBlockBytes);
+            // A piece that did not fit its size hint continues in writer-sized blocks
+            preferredBlockBytes = Math.max(preferredBlockBytes, WRITER_BLOCK_BYTES);
+        }
+
+        private void closeBlock() {
+            if (block == null) {
+                return;
+            }
+            int used = block.position();
+            if (used > 0) {
+                slices.add(block.slice(0, used).asReadOnlyBuffer());
+                byteLength += used;
+            }
+            giveBack(block, used);
+            block = null;
+        }
+
+        private void checkWritable() {
+            checkOpen();
+            if (finished) {
+                throw new IllegalStateException("Entry already finished");
+            }
+        }
+    }
+
+    /**
+     * Reader decoding the slices of an entry one after another
+     */
+    private final class EntryReader extends Reader {
+        private final List<ByteBuffer> slices;
+        private final CharsetDecoder decoder = newDecoder();
+        private ByteBuffer slice;
+        private int next;
+
+        private EntryReader(List<ByteBuffer> slices) {
+            this.slices = slices;
+        }
+
+        @Override
+        public int read(char[] buffer, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (closed) {
+                throw new IOException("Content arena is closed");
+            }
+            CharBuffer out = CharBuffer.wrap(buffer, off, len);
+            while (out.position() == off) {
+                if (slice == null || !slice.hasRemaining()) {
+                    if (slice != null) {
+                        decoder.flush(out);
+                    }
+                    if (next == slices.size()) {
+                        break;
+                    }
+                    slice = slices.get(next++).duplicate();
+                    decoder.reset();
+                }
+                decoder.decode(slice, out, true);
+            }
+            int read = out.position() - off;
+            return read > 0 ? read : -1;
+        }
+
+        @Override
+        public void close() {
+            slice = null;
+            next = slices.size();
+        }
+    }
+
+    private static CharsetDecoder newDecoder() {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+}
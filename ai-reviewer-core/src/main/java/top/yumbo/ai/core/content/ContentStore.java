@@ -0,0 +1,120 @@
+package top.yumbo.ai.core.content;
+
+import lombok.extern.slf4j.Slf4j;
+import top.yumbo.ai.api.model.ContentHandle;
+import top.yumbo.ai.api.model.PreProcessedData;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps parsed content in memory up to a budget.
+ * Content admitted beyond the budget is released: content backed by its source file is
+ * simply dropped and re-read on access, any other content is spilled to a temporary file.
+ * Closing the store deletes the spilled files.
+ */
+@Slf4j
+public class ContentStore implements AutoCloseable {
+    private final long memoryBudgetChars;
+    private final List<Path> spilledFiles = new ArrayList<>();
+    private Path spillDirectory;
+    private long residentChars;
+    private int releasedCount;
+
+    /**
+     * @param memoryBudgetChars characters of content kept in memory
+     */
+    public ContentStore(long memoryBudgetChars) {
+        this.memoryBudgetChars = memoryBudgetChars;
+    }
+
+    /**
+     * Keep the content in memory if it fits the budget, otherwise release it
+     */
+    public void admit(PreProcessedData data) throws IOException {
+        if (data == null || !data.isContentLoaded()) {
+            return;
+        }
+        int length = data.getContent().length();
+        synchronized (this) {
+            if (residentChars + length <= memoryBudgetChars) {
+                residentChars += length;
+                return;
+            }
+            if (data.getContentHandle() == null) {
+                data.setContentHandle(spill(data.getContent()));
+            }
+            releasedCount++;
+        }
+        data.releaseContent();
+    }
+
+    /**
+     * Characters of admitted content held in memory
+     */
+    public synchronized long getResidentChars() {
+        return residentChars;
+    }
+
+    /**
+     * Number of admitted items whose content was released
+     */
+    public synchronized int getReleasedCount() {
+        return releasedCount;
+    }
+
+    private ContentHandle spill(String content) throws IOException {
+        if (spillDirectory == null) {
+            spillDirectory = Files.createTempDirectory("ai-reviewer-content-");
+            log.info("Content above the {} char memory budget is spilled to {}", memoryBudgetChars, spillDirectory);
+        }
+        Path file = Files.createTempFile(spillDirectory, "content-", ".txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        spilledFiles.add(file);
+        return new SpilledContent(file);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (releasedCount > 0) {
+            log.info("Content store released {} items ({} spilled), {} chars stayed in memory",
+                    releasedCount, spilledFiles.size(), residentChars);
+        }
+        for (Path file : spilledFiles) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete spilled content {}", file, e);
+            }
+        }
+        spilledFiles.clear();
+        if (spillDirectory != null) {
+            try {
+                Files.deleteIfExists(spillDirectory);
+            } catch (IOException e) {
+                log.warn("Failed to delete spill directory {}", spillDirectory, e);
+            }
+            spillDirectory = null;
+        }
+    }
+
+    /**
+     * Content spilled to a temporary file
+     */
+    private static class SpilledContent implements ContentHandle {
+        private final Path file;
+
+        private SpilledContent(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public String load() throws IOException {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        }
+    }
+}
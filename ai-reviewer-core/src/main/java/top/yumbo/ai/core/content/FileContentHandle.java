@@ -0,0 +1,27 @@
+package top.yumbo.ai.core.content;
+
+import top.yumbo.ai.api.model.ContentHandle;
+import top.yumbo.ai.common.util.FileUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Content handle re-reading the source file, for parsers whose content is the file's text
+ */
+public class FileContentHandle implements ContentHandle {
+    private final Path path;
+
+    public FileContentHandle(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public String load() throws IOException {
+        return FileUtil.readFileToString(path);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
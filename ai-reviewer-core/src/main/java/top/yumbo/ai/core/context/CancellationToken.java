@@ -0,0 +1,41 @@
+package top.yumbo.ai.core.context;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cancels the AI calls of an execution from another thread, e.g. when a concurrent attempt
+ * at the same review has already succeeded. Calls registered after cancelling are cancelled at once.
+ */
+public class CancellationToken {
+    private final Set<CompletableFuture<?>> calls = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /**
+     * Cancel the calls in flight and any call registered later
+     */
+    public void cancel() {
+        cancelled = true;
+        for (CompletableFuture<?> call : calls) {
+            call.cancel(true);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Track a call until it completes, so that {@link #cancel()} can cancel it
+     */
+    public <T> CompletableFuture<T> register(CompletableFuture<T> call) {
+        calls.add(call);
+        call.whenComplete((ignored, error) -> calls.remove(call));
+        // Cancelled while registering: the loop in cancel() may have missed this call
+        if (cancelled) {
+            call.cancel(true);
+        }
+        return call;
+    }
+}
@@ -1,19 +1,26 @@
 package top.yumbo.ai.core.context;
 import lombok.Builder;
 import lombok.Data;
+import top.yumbo.ai.api.ai.IStreamListener;
 import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.AIResponse;
 import top.yumbo.ai.api.model.ProcessorConfig;
 import top.yumbo.ai.api.source.FileSourceConfig;
+import top.yumbo.ai.core.content.ContentArena;
+import top.yumbo.ai.core.content.ContentStore;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 /**
  * Execution context for tracking state during processing
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ExecutionContext {
     /**
      * Execution ID
@@ -65,10 +72,80 @@ public class ExecutionContext {
      */
     private Long maxFileSize;
 
+    /**
+     * Drop generated, minified, vendored and lock files before parsing
+     */
+    @Builder.Default
+    private boolean skipGeneratedFiles = false;
+
+    /**
+     * Files larger than this many bytes are replaced by a code skeleton before prompting
+     * (null disables compaction)
+     */
+    private Long compactionThreshold;
+
+    /**
+     * Number of verbatim lines kept as an excerpt in a compacted file
+     */
+    @Builder.Default
+    private int compactionExcerptLines = 40;
+
+    /**
+     * Token budget for the files of a project prompt; when set, the most important files are
+     * selected up to the budget and the rest are only listed (null includes every file)
+     */
+    private Integer fileSelectionTokenBudget;
+
+    /**
+     * Token budget per AI request; when set, files are packed into shared requests and
+     * oversized files are split into chunks (null disables packing)
+     */
+    private Integer promptTokenBudget;
+
+    /**
+     * Tokens of overlap between consecutive chunks of a split file
+     */
+    @Builder.Default
+    private int chunkOverlapTokens = 200;
+
+    /**
+     * Projects whose prompt exceeds this many tokens are reviewed map-reduce style: parts of the
+     * project are summarized in parallel and the project is scored from the summaries
+     * (null disables map-reduce)
+     */
+    private Integer mapReduceThresholdTokens;
+
+    /**
+     * Content tokens per part summarized in the map phase
+     */
+    @Builder.Default
+    private int mapReduceChunkTokens = 30000;
+
+    /**
+     * Maximum output tokens of one part summary
+     */
+    @Builder.Default
+    private int mapReduceSummaryMaxTokens = 1500;
+
     /**
      * AI configuration
      */
     private AIConfig aiConfig;
+
+    /**
+     * Creates the listener receiving the streamed content deltas of each AI call, so that an
+     * escalated call gets its own listener state; when set, AI calls use streaming
+     */
+    private Supplier<IStreamListener> streamListeners;
+    /**
+     * Accepts or rejects a response of a cascading route; rejected responses are escalated
+     * to the default model (null accepts any non-blank response)
+     */
+    private Predicate<AIResponse> responseValidator;
+    /**
+     * Cancels this execution's AI calls from another thread (null when not cancellable)
+     */
+    private CancellationToken cancellationToken;
     /**
      * Processor configuration
      */
@@ -83,6 +160,29 @@ public class ExecutionContext {
      */
     @Builder.Default
     private int threadPoolSize = 10;
+    /**
+     * Pool used for parsing and AI calls of this execution (null uses the engine's pool)
+     */
+    private ExecutorService executorService;
+    /**
+     * Characters of parsed content kept in memory; content beyond it is re-read from its
+     * source file or spilled to disk on demand (null keeps all content in memory)
+     */
+    private Long contentMemoryBudget;
+    /**
+     * Store holding this execution's parsed content under the memory budget
+     */
+    private ContentStore contentStore;
+    /**
+     * Keep parsed content and assembled prompts off-heap in a per-execution arena;
+     * takes precedence over the memory budget
+     */
+    @Builder.Default
+    private boolean offHeapContent = false;
+    /**
+     * Arena holding this execution's off-heap content
+     */
+    private ContentArena contentArena;
     /**
      * Put value in context
      */
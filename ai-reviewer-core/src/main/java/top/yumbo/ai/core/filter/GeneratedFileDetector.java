@@ -0,0 +1,348 @@
+package top.yumbo.ai.core.filter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import top.yumbo.ai.common.util.FileSniffer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Detects generated, minified, vendored and lock files that pass the include patterns.
+ * Decides from the path and the first few KB of each file, so it is cheap enough to run
+ * on every candidate before parsing. Directory names that are also ordinary package names,
+ * such as {@code build} or {@code vendor}, only count at a build root: the project root or a
+ * directory holding a build file. A library banner needs a name and version, so a license
+ * header alone does not make a file vendored. Generator and banner markers are only looked for in
+ * the leading comments of a file, and never in documentation, which mentions them in prose.
+ */
+@Slf4j
+public class GeneratedFileDetector {
+    /**
+     * Bytes sampled from the start of each file
+     */
+    public static final int SAMPLE_BYTES = 4096;
+    private static final int HEADER_BYTES = 1024;
+    private static final int MIN_SAMPLE_FOR_STATISTICS = 1024;
+    private static final double MAX_AVERAGE_LINE_LENGTH = 250;
+    /**
+     * Minified code has almost no whitespace, prose and formatted data have plenty
+     */
+    private static final double MAX_MINIFIED_WHITESPACE = 0.12;
+    /**
+     * Line and entropy statistics only hold for mostly-ASCII text; CJK text is high-entropy by nature
+     */
+    private static final double MIN_ASCII_FOR_STATISTICS = 0.9;
+    /**
+     * Bits per byte above which a text sample is encoded data (base64, embedded blobs);
+     * source code is typically 4.5-5.3
+     */
+    private static final double MAX_ENTROPY = 5.8;
+
+    /**
+     * Vendored wherever they appear
+     */
+    private static final Set<String> VENDOR_DIRECTORIES = Set.of(
+            "node_modules", "bower_components", "third_party", "third-party", "thirdparty",
+            "site-packages", "venv", ".venv", "jspm_packages");
+    /**
+     * Vendored only at a build root
+     */
+    private static final Set<String> ROOT_VENDOR_DIRECTORIES = Set.of("vendor", "vendors", "pods");
+    /**
+     * Build output wherever they appear
+     */
+    private static final Set<String> OUTPUT_DIRECTORIES = Set.of(".next", ".nuxt", "__pycache__");
+    /**
+     * Build output only at a build root
+     */
+    private static final Set<String> ROOT_OUTPUT_DIRECTORIES = Set.of(
+            "dist", "build", "target", "out", "generated", "coverage");
+    /**
+     * Files marking a build root, lower case
+     */
+    private static final Set<String> BUILD_FILES = Set.of(
+            "pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "settings.gradle.kts", "build.xml",
+            "build.sbt", "package.json", "angular.json", "tsconfig.json", "cargo.toml", "go.mod", "pyproject.toml",
+            "setup.py", "setup.cfg", "cmakelists.txt", "makefile", "composer.json", "gemfile", "podfile",
+            "pubspec.yaml", "mix.exs");
+    private static final List<String> BUILD_FILE_SUFFIXES = List.of(".csproj", ".fsproj", ".vbproj", ".sln");
+    private static final Set<String> LOCK_FILES = Set.of(
+            "package-lock.json", "npm-shrinkwrap.json", "yarn.lock", "pnpm-lock.yaml", "bun.lockb",
+            "poetry.lock", "pipfile.lock", "pdm.lock", "uv.lock", "cargo.lock", "composer.lock", "gemfile.lock",
+            "go.sum", "gradle.lockfile", "packages.lock.json", "podfile.lock", "pubspec.lock", "flake.lock");
+    private static final List<String> MINIFIED_SUFFIXES = List.of(
+            ".min.js", ".min.mjs", ".min.css", ".bundle.js", ".chunk.js", ".js.map", ".css.map");
+    private static final List<String> GENERATED_SUFFIXES = List.of(
+            ".pb.go", "_pb2.py", "_pb2_grpc.py", ".pb.cc", ".pb.h", ".g.dart", ".freezed.dart",
+            ".designer.cs", ".g.cs", ".generated.ts");
+    private static final List<String> GENERATED_MARKERS = List.of(
+            "@generated", "auto-generated", "autogenerated", "automatically generated",
+            "code generated by", "do not edit", "don't edit this file", "generated by the protocol buffer");
+    /**
+     * Documentation and prose, where marker phrases are written about code rather than by a generator
+     */
+    private static final List<String> PROSE_SUFFIXES = List.of(
+            ".md", ".markdown", ".txt", ".rst", ".adoc", ".asciidoc", ".org", ".tex");
+    /**
+     * Line starts of comments in the common languages; marker checks only look at the leading comment block
+     */
+    private static final List<String> COMMENT_STARTS = List.of(
+            "//", "/*", "*", "#", "<!--", "--", ";", "'''", "\"\"\"", "<?xml", "%");
+    private static final List<String> VENDOR_MARKERS = List.of(
+            "* jquery", "* bootstrap v", "* lodash", "* vue.js v");
+    /**
+     * Library banner: a preserved comment or license tag followed by a package name and its version,
+     * as in {@code /*! jQuery v3.7.1} or {@code @license React v18.2.0}
+     */
+    private static final Pattern VERSIONED_BANNER = Pattern.compile(
+            "(?:/\\*!|@license|@preserve)[\\s*]*(?:@?[a-z][\\w.@/-]*\\s+){1,3}v?\\d+\\.\\d+\\.\\d+");
+
+    /**
+     * Kind of a detected file
+     */
+    public enum Kind {
+        MINIFIED, LOCKFILE, VENDORED, GENERATED, BINARY
+    }
+
+    /**
+     * Detect the generated files among the given files
+     *
+     * @param root project root; only path segments below it are considered
+     * @return detected files and their kind, in input order
+     */
+    public Map<Path, Kind> detect(Path root, List<Path> files) {
+        Map<Path, Kind> detected = new LinkedHashMap<>();
+        Map<Path, Boolean> buildRoots = new HashMap<>();
+        for (Path file : files) {
+            Kind kind = classify(root, file, buildRoots);
+            if (kind != null) {
+                detected.put(file, kind);
+            }
+        }
+        if (!detected.isEmpty()) {
+            log.info("Detected {} generated/vendored files among {} candidates", detected.size(), files.size());
+            detected.forEach((file, kind) -> log.debug("Skipping {} file: {}", kind, file));
+        }
+        return detected;
+    }
+
+    /**
+     * Files that are not detected as generated, in input order
+     */
+    public List<Path> filter(Path root, List<Path> files) {
+        Map<Path, Kind> detected = detect(root, files);
+        if (detected.isEmpty()) {
+            return files;
+        }
+        List<Path> kept = new ArrayList<>(files.size() - detected.size());
+        for (Path file : files) {
+            if (!detected.containsKey(file)) {
+                kept.add(file);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Classify a single file
+     *
+     * @return the kind of generated file, or null for a regular file
+     */
+    public Kind classify(Path root, Path file) {
+        return classify(root, file, new HashMap<>());
+    }
+
+    private Kind classify(Path root, Path file, Map<Path, Boolean> buildRoots) {
+        Kind kind = classifyPath(root != null && file.startsWith(root) ? root : null, file, buildRoots);
+        if (kind != null) {
+            return kind;
+        }
+        try {
+            return classifyContent(readSample(file), file.getFileName().toString().toLowerCase(Locale.ROOT));
+        } catch (IOException e) {
+            log.debug("Could not sample {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param root project root holding the file, or null when the file is outside it
+     */
+    private Kind classifyPath(Path root, Path file, Map<Path, Boolean> buildRoots) {
+        Path relative = root != null ? root.relativize(file) : file;
+        int directories = relative.getNameCount() - 1;
+        for (int i = 0; i < directories; i++) {
+            String segment = relative.getName(i).toString().toLowerCase(Locale.ROOT);
+            if (VENDOR_DIRECTORIES.contains(segment)) {
+                return Kind.VENDORED;
+            }
+            if (OUTPUT_DIRECTORIES.contains(segment)) {
+                return Kind.GENERATED;
+            }
+            boolean rootVendor = ROOT_VENDOR_DIRECTORIES.contains(segment);
+            if (rootVendor || ROOT_OUTPUT_DIRECTORIES.contains(segment)) {
+                // The directory holding this segment: the project root for the first one
+                boolean atRoot = root != null && i == 0;
+                if (atRoot || isBuildRoot(directoryOf(root, file, relative, i), buildRoots)) {
+                    return rootVendor ? Kind.VENDORED : Kind.GENERATED;
+                }
+            }
+        }
+        String name = relative.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (LOCK_FILES.contains(name)) {
+            return Kind.LOCKFILE;
+        }
+        for (String suffix : MINIFIED_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return Kind.MINIFIED;
+            }
+        }
+        for (String suffix : GENERATED_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return Kind.GENERATED;
+            }
+        }
+        return null;
+    }
+
+    private static Path directoryOf(Path root, Path file, Path relative, int segment) {
+        if (root != null) {
+            return segment == 0 ? root : root.resolve(relative.subpath(0, segment));
+        }
+        Path directory = file;
+        for (int i = relative.getNameCount() - 1; i >= segment; i--) {
+            directory = directory.getParent();
+        }
+        return directory;
+    }
+
+    /**
+     * Whether the directory holds a build file, cached per detection run
+     */
+    private static boolean isBuildRoot(Path directory, Map<Path, Boolean> buildRoots) {
+        if (directory == null) {
+            return false;
+        }
+        return buildRoots.computeIfAbsent(directory, dir -> {
+            try (Stream<Path> entries = Files.list(dir)) {
+                return entries.map(entry -> entry.getFileName().toString().toLowerCase(Locale.ROOT))
+                        .anyMatch(name -> BUILD_FILES.contains(name)
+                                || BUILD_FILE_SUFFIXES.stream().anyMatch(name::endsWith));
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    private Kind classifyContent(byte[] sample, String name) {
+        if (sample.length == 0) {
+            return null;
+        }
+        FileSniffer.Result sniffed = FileSniffer.sniff(sample, sample.length);
+        if (sniffed.isBinary()) {
+            return Kind.BINARY;
+        }
+        if (sniffed.getCharset() == StandardCharsets.UTF_16LE || sniffed.getCharset() == StandardCharsets.UTF_16BE) {
+            return null;
+        }
+        int newlines = 0;
+        int whitespace = 0;
+        int ascii = 0;
+        int[] counts = new int[256];
+        for (byte b : sample) {
+            if (b == '\n') {
+                newlines++;
+            }
+            if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                whitespace++;
+            }
+            if (b >= 0) {
+                ascii++;
+            }
+            counts[b & 0xFF]++;
+        }
+
+        // Banners and markers sit in the leading comments of a source file
+        boolean prose = PROSE_SUFFIXES.stream().anyMatch(name::endsWith);
+        String header = prose ? "" : leadingComments(
+                new String(sample, 0, Math.min(sample.length, HEADER_BYTES), StandardCharsets.ISO_8859_1)
+                        .toLowerCase(Locale.ROOT));
+        for (String marker : GENERATED_MARKERS) {
+            if (header.contains(marker)) {
+                return Kind.GENERATED;
+            }
+        }
+        for (String marker : VENDOR_MARKERS) {
+            if (header.contains(marker)) {
+                return Kind.VENDORED;
+            }
+        }
+        if (VERSIONED_BANNER.matcher(header).find()) {
+            return Kind.VENDORED;
+        }
+
+        if (sample.length < MIN_SAMPLE_FOR_STATISTICS || ascii < sample.length * MIN_ASCII_FOR_STATISTICS) {
+            return null;
+        }
+        if ((double) sample.length / (newlines + 1) > MAX_AVERAGE_LINE_LENGTH
+                && whitespace < sample.length * MAX_MINIFIED_WHITESPACE) {
+            return Kind.MINIFIED;
+        }
+        if (entropy(counts, sample.length) > MAX_ENTROPY) {
+            return Kind.GENERATED;
+        }
+        return null;
+    }
+
+    /**
+     * The comment lines at the top of the text, up to the first line of code
+     */
+    private static String leadingComments(String text) {
+        StringBuilder comments = new StringBuilder();
+        boolean inBlock = false;
+        for (String line : text.split("\n")) {
+            String trimmed = line.strip();
+            if (!inBlock && !trimmed.isEmpty() && COMMENT_STARTS.stream().noneMatch(trimmed::startsWith)) {
+                break;
+            }
+            comments.append(line).append('\n');
+            if (trimmed.startsWith("/*") || trimmed.startsWith("<!--")) {
+                inBlock = true;
+            }
+            if (trimmed.contains("*/") || trimmed.contains("-->")) {
+                inBlock = false;
+            }
+        }
+        return comments.toString();
+    }
+
+    /**
+     * Shannon entropy of the byte distribution in bits per byte
+     */
+    private static double entropy(int[] counts, int total) {
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / total;
+                entropy -= p * Math.log(p);
+            }
+        }
+        return entropy / Math.log(2);
+    }
+
+    private static byte[] readSample(Path file) throws IOException {
+        return FileSniffer.readPrefix(file, SAMPLE_BYTES);
+    }
+}
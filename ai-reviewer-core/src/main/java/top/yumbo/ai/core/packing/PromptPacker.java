@@ -0,0 +1,263 @@
+package top.yumbo.ai.core.packing;
+
+import lombok.extern.slf4j.Slf4j;
+import top.yumbo.ai.api.model.FileMetadata;
+import top.yumbo.ai.api.model.PreProcessedData;
+import top.yumbo.ai.common.token.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs preprocessed files into AI requests under a token budget.
+ * Small files are bin-packed (first-fit decreasing) into shared requests, oversized files
+ * are split into overlapping line-based chunks. Every packed item records the source files
+ * it covers in its context so responses can be mapped back.
+ */
+@Slf4j
+public class PromptPacker {
+    /**
+     * Context key: list of source file paths covered by a packed item
+     */
+    public static final String CONTEXT_SOURCE_FILES = "sourceFiles";
+    /**
+     * Context key: 1-based chunk index of a split file
+     */
+    public static final String CONTEXT_CHUNK_INDEX = "chunkIndex";
+    /**
+     * Context key: total number of chunks of a split file
+     */
+    public static final String CONTEXT_CHUNK_COUNT = "chunkCount";
+
+    private static final int SECTION_HEADER_TOKENS = 16;
+
+    private final int tokenBudget;
+    private final int overlapTokens;
+    private final TokenEstimator tokenEstimator;
+
+    public PromptPacker(int tokenBudget, int overlapTokens) {
+        this(tokenBudget, overlapTokens, TokenEstimator.of(TokenEstimator.ModelFamily.GENERIC));
+    }
+
+    public PromptPacker(int tokenBudget, int overlapTokens, TokenEstimator tokenEstimator) {
+        if (tokenBudget <= SECTION_HEADER_TOKENS) {
+            throw new IllegalArgumentException("Token budget too small: " + tokenBudget);
+        }
+        this.tokenBudget = tokenBudget;
+        this.overlapTokens = Math.max(0, Math.min(overlapTokens, tokenBudget / 2));
+        this.tokenEstimator = tokenEstimator;
+    }
+
+    /**
+     * Pack the given files into requests that each fit the token budget
+     */
+    public List<PreProcessedData> pack(List<PreProcessedData> dataList) {
+        List<PreProcessedData> packed = new ArrayList<>();
+        List<Bin> bins = new ArrayList<>();
+        List<Sized> small = new ArrayList<>();
+        for (PreProcessedData data : dataList) {
+            int tokens = (data.getEstimatedTokens() != null
+                    ? data.getEstimatedTokens() : tokenEstimator.estimate(data.getContent())) + SECTION_HEADER_TOKENS;
+            if (tokens > tokenBudget) {
+                packed.addAll(split(data));
+            } else {
+                small.add(new Sized(data, tokens));
+            }
+        }
+        small.sort(Comparator.comparingInt((Sized s) -> s.tokens).reversed());
+        for (Sized item : small) {
+            Bin target = null;
+            for (Bin bin : bins) {
+                if (bin.tokens + item.tokens <= tokenBudget) {
+                    target = bin;
+                    break;
+                }
+            }
+            if (target == null) {
+                target = new Bin();
+                bins.add(target);
+            }
+            target.items.add(item.data);
+            target.tokens += item.tokens;
+        }
+        for (Bin bin : bins) {
+            packed.add(bin.items.size() == 1 ? bin.items.get(0) : merge(bin.items, bin.tokens));
+        }
+        log.info("Packed {} files into {} requests (token budget {})", dataList.size(), packed.size(), tokenBudget);
+        return packed;
+    }
+
+    /**
+     * Combine several small files into one request
+     */
+    private PreProcessedData merge(List<PreProcessedData> items, int tokens) {
+        StringBuilder sb = new StringBuilder();
+        List<String> sourceFiles = new ArrayList<>();
+        long totalSize = 0;
+        for (PreProcessedData item : items) {
+            String source = sourceOf(item);
+            sourceFiles.add(source);
+            totalSize += item.getMetadata() != null ? item.getMetadata().getFileSize() : 0;
+            sb.append("===== File: ").append(source).append(" =====\n")
+                    .append(item.getContent()).append("\n\n");
+        }
+        Map<String, Object> context = new HashMap<>();
+        context.put(CONTEXT_SOURCE_FILES, sourceFiles);
+        return PreProcessedData.builder()
+                .metadata(FileMetadata.builder()
+                        .fileName(items.size() + " files")
+                        .fileType("packed")
+                        .fileSize(totalSize)
+                        .build())
+                .content(sb.toString())
+                .context(context)
+                .parserName(PromptPacker.class.getSimpleName())
+                .estimatedTokens(tokens)
+                .build();
+    }
+
+    /**
+     * Split an oversized file into overlapping chunks of whole lines; a line above the budget
+     * on its own is cut into pieces that each fit
+     */
+    private List<PreProcessedData> split(PreProcessedData data) {
+        String source = sourceOf(data);
+        // Widest chunk header of this file, so that header and content together fit the budget
+        int headerTokens = Math.max(SECTION_HEADER_TOKENS, tokenEstimator.estimate(
+                "===== File: " + source + " (part 9999/9999, lines 9999999-9999999) =====\n"));
+        int contentBudget = Math.max(2, tokenBudget - headerTokens);
+        List<String> pieces = new ArrayList<>();
+        List<Integer> pieceLines = new ArrayList<>();
+        List<Boolean> pieceEndsLine = new ArrayList<>();
+        String[] sourceLines = data.getContent().split("\n", -1);
+        for (int line = 0; line < sourceLines.length; line++) {
+            List<String> cut = cutLine(sourceLines[line], contentBudget - 1);
+            for (int i = 0; i < cut.size(); i++) {
+                pieces.add(cut.get(i));
+                pieceLines.add(line);
+                pieceEndsLine.add(i == cut.size() - 1);
+            }
+        }
+        String[] lines = pieces.toArray(new String[0]);
+        List<int[]> ranges = new ArrayList<>();
+        int start = 0;
+        while (start < lines.length) {
+            int end = start;
+            int tokens = 0;
+            while (end < lines.length) {
+                int lineTokens = tokenEstimator.estimate(lines[end]) + 1;
+                if (tokens + lineTokens > contentBudget && end > start) {
+                    break;
+                }
+                tokens += lineTokens;
+                end++;
+            }
+            ranges.add(new int[]{start, end, tokens});
+            if (end >= lines.length) {
+                break;
+            }
+            // Step back over trailing lines to create the overlap, always making progress
+            int next = end;
+            int overlap = 0;
+            while (next - 1 > start) {
+                int lineTokens = tokenEstimator.estimate(lines[next - 1]) + 1;
+                if (overlap + lineTokens > overlapTokens) {
+                    break;
+                }
+                overlap += lineTokens;
+                next--;
+            }
+            start = next;
+        }
+
+        List<PreProcessedData> chunks = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            int[] range = ranges.get(i);
+            StringBuilder sb = new StringBuilder();
+            sb.append("===== File: ").append(source)
+                    .append(" (part ").append(i + 1).append('/').append(ranges.size())
+                    .append(", lines ").append(pieceLines.get(range[0]) + 1).append('-')
+                    .append(pieceLines.get(range[1] - 1) + 1).append(") =====\n");
+            for (int piece = range[0]; piece < range[1]; piece++) {
+                sb.append(lines[piece]);
+                if (pieceEndsLine.get(piece) || piece == range[1] - 1) {
+                    sb.append('\n');
+                }
+            }
+            Map<String, Object> context = data.getContext() != null ? new HashMap<>(data.getContext()) : new HashMap<>();
+            context.put(CONTEXT_SOURCE_FILES, List.of(source));
+            context.put(CONTEXT_CHUNK_INDEX, i + 1);
+            context.put(CONTEXT_CHUNK_COUNT, ranges.size());
+            chunks.add(PreProcessedData.builder()
+                    .metadata(data.getMetadata())
+                    .content(sb.toString())
+                    .context(context)
+                    .parserName(data.getParserName())
+                    .estimatedTokens(range[2] + headerTokens)
+                    .build());
+        }
+        log.debug("Split {} into {} chunks", source, chunks.size());
+        return chunks;
+    }
+
+    /**
+     * Cut a line into pieces of at most the given tokens, at character offsets derived from the
+     * line's estimate; a line within the budget is returned whole
+     */
+    private List<String> cutLine(String line, int maxTokens) {
+        int lineTokens = tokenEstimator.estimate(line);
+        if (lineTokens <= maxTokens) {
+            return List.of(line);
+        }
+        List<String> cut = new ArrayList<>();
+        int from = 0;
+        while (from < line.length()) {
+            String rest = line.substring(from);
+            int restTokens = tokenEstimator.estimate(rest);
+            if (restTokens <= maxTokens) {
+                cut.add(rest);
+                break;
+            }
+            int length = Math.max(1, (int) ((long) rest.length() * maxTokens / restTokens));
+            while (length > 1 && tokenEstimator.estimate(rest.substring(0, length)) > maxTokens) {
+                length = Math.max(1, length * 9 / 10);
+            }
+            // Keep surrogate pairs together
+            if (length < rest.length() && Character.isHighSurrogate(rest.charAt(length - 1)) && length > 1) {
+                length--;
+            }
+            cut.add(rest.substring(0, length));
+            from += length;
+        }
+        return cut;
+    }
+
+    private static String sourceOf(PreProcessedData data) {
+        FileMetadata metadata = data.getMetadata();
+        if (metadata == null) {
+            return "unknown";
+        }
+        if (metadata.getFilePath() != null) {
+            return metadata.getFilePath().toString();
+        }
+        return metadata.getFileName() != null ? metadata.getFileName() : "unknown";
+    }
+
+    private static class Sized {
+        private final PreProcessedData data;
+        private final int tokens;
+
+        private Sized(PreProcessedData data, int tokens) {
+            this.data = data;
+            this.tokens = tokens;
+        }
+    }
+
+    private static class Bin {
+        private final List<PreProcessedData> items = new ArrayList<>();
+        private int tokens;
+    }
+}
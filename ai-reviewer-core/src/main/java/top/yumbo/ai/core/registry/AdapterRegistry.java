@@ -2,10 +2,15 @@ package top.yumbo.ai.core.registry;
 
 import lombok.extern.slf4j.Slf4j;
 import top.yumbo.ai.api.ai.IAIService;
+import top.yumbo.ai.api.ai.IBatchAIService;
+import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.PreProcessedData;
+import top.yumbo.ai.api.model.RoutingRule;
 import top.yumbo.ai.api.parser.IFileParser;
 import top.yumbo.ai.api.processor.IResultProcessor;
 import top.yumbo.ai.api.source.FileSourceConfig;
 import top.yumbo.ai.api.source.IFileSource;
+import top.yumbo.ai.common.exception.AIReviewerException;
 
 import java.io.File;
 import java.util.*;
@@ -18,6 +23,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class AdapterRegistry {
     private final Map<String, IFileParser> parsers = new ConcurrentHashMap<>();
     private final Map<String, IAIService> aiServices = new ConcurrentHashMap<>();
+    private final Map<String, IBatchAIService> batchAIServices = new ConcurrentHashMap<>();
     private final Map<String, IResultProcessor> processors = new ConcurrentHashMap<>();
     private final Map<String, IFileSource> fileSources = new ConcurrentHashMap<>();
 
@@ -37,6 +43,14 @@ public class AdapterRegistry {
         log.info("Registered AI service: {}", aiService.getProviderName());
     }
 
+    /**
+     * Register a batch AI service
+     */
+    public void registerBatchAIService(IBatchAIService batchAIService) {
+        batchAIServices.put(batchAIService.getProviderName(), batchAIService);
+        log.info("Registered batch AI service: {}", batchAIService.getProviderName());
+    }
+
     /**
      * Register a result processor
      */
@@ -69,6 +83,62 @@ public class AdapterRegistry {
         return Optional.ofNullable(aiServices.get(providerName));
     }
 
+    /**
+     * Pick the AI service and configuration for one request.
+     * The first routing rule of the config matching the request's estimated tokens, file type
+     * and priority overrides provider and model; without a match the config is used as is.
+     */
+    public ModelRoute route(PreProcessedData data, AIConfig config) {
+        if (config.getRouting() != null) {
+            for (RoutingRule rule : config.getRouting()) {
+                if (matches(rule, data)) {
+                    AIConfig routed = config.toBuilder()
+                            .provider(rule.getProvider() != null ? rule.getProvider() : config.getProvider())
+                            .model(rule.getModel() != null ? rule.getModel() : config.getModel())
+                            .maxTokens(rule.getMaxTokens() != null ? rule.getMaxTokens() : config.getMaxTokens())
+                            .routing(null)
+                            .build();
+                    log.debug("Routing request to {}/{} by rule {}", routed.getProvider(), routed.getModel(), rule.getName());
+                    return new ModelRoute(requireAIService(routed.getProvider()), routed, rule);
+                }
+            }
+        }
+        return new ModelRoute(requireAIService(config.getProvider()), config, null);
+    }
+
+    private IAIService requireAIService(String providerName) {
+        return getAIService(providerName)
+                .orElseThrow(() -> new AIReviewerException("AI service not found: " + providerName));
+    }
+
+    private static boolean matches(RoutingRule rule, PreProcessedData data) {
+        Integer tokens = data.getEstimatedTokens();
+        if (rule.getMinEstimatedTokens() != null && (tokens == null || tokens < rule.getMinEstimatedTokens())) {
+            return false;
+        }
+        if (rule.getMaxEstimatedTokens() != null && (tokens == null || tokens > rule.getMaxEstimatedTokens())) {
+            return false;
+        }
+        if (rule.getFileTypes() != null && !rule.getFileTypes().isEmpty()) {
+            String fileType = data.getMetadata() != null ? data.getMetadata().getFileType() : null;
+            if (fileType == null || rule.getFileTypes().stream().noneMatch(fileType::equalsIgnoreCase)) {
+                return false;
+            }
+        }
+        if (rule.getPriorities() != null && !rule.getPriorities().isEmpty()) {
+            Object priority = data.getContext() != null ? data.getContext().get(RoutingRule.CONTEXT_PRIORITY) : null;
+            return priority != null && rule.getPriorities().stream().anyMatch(priority.toString()::equalsIgnoreCase);
+        }
+        return true;
+    }
+
+    /**
+     * Get batch AI service by provider name
+     */
+    public Optional<IBatchAIService> getBatchAIService(String providerName) {
+        return Optional.ofNullable(batchAIServices.get(providerName));
+    }
+
     /**
      * Get processor by type
      */
@@ -107,6 +177,13 @@ public class AdapterRegistry {
         return Collections.unmodifiableCollection(aiServices.values());
     }
 
+    /**
+     * Get all registered batch AI services
+     */
+    public Collection<IBatchAIService> getAllBatchAIServices() {
+        return Collections.unmodifiableCollection(batchAIServices.values());
+    }
+
     /**
      * Get all registered processors
      */
@@ -134,6 +211,11 @@ public class AdapterRegistry {
         log.info("Cleared all registered AI services");
     }
 
+    public void clearBatchAIServices() {
+        batchAIServices.clear();
+        log.info("Cleared all registered batch AI services");
+    }
+
     public void clearProcessors() {
         processors.clear();
         log.info("Cleared all registered processors");
@@ -157,13 +239,16 @@ public class AdapterRegistry {
         // Load AI services
         ServiceLoader<IAIService> aiServiceLoader = ServiceLoader.load(IAIService.class);
         aiServiceLoader.forEach(this::registerAIService);
+        // Load batch AI services
+        ServiceLoader<IBatchAIService> batchAIServiceLoader = ServiceLoader.load(IBatchAIService.class);
+        batchAIServiceLoader.forEach(this::registerBatchAIService);
         // Load processors
         ServiceLoader<IResultProcessor> processorLoader = ServiceLoader.load(IResultProcessor.class);
         processorLoader.forEach(this::registerProcessor);
         // Load file sources
         ServiceLoader<IFileSource> fileSourceLoader = ServiceLoader.load(IFileSource.class);
         fileSourceLoader.forEach(this::registerFileSource);
-        log.info("Loaded adapters from SPI - Parsers: {}, AI Services: {}, Processors: {}, File Sources: {}",
-                parsers.size(), aiServices.size(), processors.size(), fileSources.size());
+        log.info("Loaded adapters from SPI - Parsers: {}, AI Services: {}, Batch AI Services: {}, Processors: {}, File Sources: {}",
+                parsers.size(), aiServices.size(), batchAIServices.size(), processors.size(), fileSources.size());
     }
 }
@@ -0,0 +1,26 @@
+package top.yumbo.ai.core.registry;
+
+import lombok.Data;
+import top.yumbo.ai.api.ai.IAIService;
+import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.RoutingRule;
+
+/**
+ * AI service and effective configuration chosen for one request
+ */
+@Data
+public class ModelRoute {
+    private final IAIService service;
+    private final AIConfig config;
+    /**
+     * Matched rule, null when the default provider and model are used
+     */
+    private final RoutingRule rule;
+
+    /**
+     * Check if a failed or rejected response should be retried on the default model
+     */
+    public boolean isCascading() {
+        return rule != null && Boolean.TRUE.equals(rule.getCascade());
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import top.yumbo.ai.adaptor.ai.HttpBasedAIAdapter;
+import top.yumbo.ai.adaptor.ai.OpenAIBatchAdapter;
 import top.yumbo.ai.adaptor.parser.JavaFileParser;
 import top.yumbo.ai.adaptor.parser.JavaScriptFileParser;
 import top.yumbo.ai.adaptor.parser.PlainTextFileParser;
@@ -14,6 +15,7 @@ import top.yumbo.ai.adaptor.parser.PythonFileParser;
 import top.yumbo.ai.adaptor.processor.CodeReviewProcessor;
 import top.yumbo.ai.api.model.AIConfig;
 import top.yumbo.ai.core.AIEngine;
+import top.yumbo.ai.core.balance.LoadBalancedAIService;
 import top.yumbo.ai.core.registry.AdapterRegistry;
 
 /**
@@ -38,7 +40,8 @@ public class AIReviewerAutoConfiguration {
         registry.registerParser(new PythonFileParser());
         registry.registerParser(new JavaScriptFileParser());
         registry.registerParser(new PlainTextFileParser());
-        registry.registerAIService(new HttpBasedAIAdapter(aiConfig));
+        registry.registerAIService(LoadBalancedAIService.create(aiConfig, HttpBasedAIAdapter::new));
+        registry.registerBatchAIService(new OpenAIBatchAdapter(aiConfig));
         registry.registerProcessor(new CodeReviewProcessor());
         registry.loadAdaptersFromSPI();
         return registry;
@@ -21,6 +21,7 @@ public class AIReviewerProperties {
         private List<String> includePatterns;
         private List<String> excludePatterns;
         private String maxFileSize;
+        private Boolean skipGeneratedFiles = false;
     }
 
     @Data
@@ -39,6 +40,17 @@ public class AIReviewerProperties {
     public static class Executor {
         private Integer threadPoolSize;
         private Integer maxQueueSize;
+        private Integer contentMemoryBudgetMb;
+        private Boolean offHeapContent = false;
+
+        /**
+         * Parsed content kept in memory per execution, in characters, or null for no limit.
+         * A string takes at most two bytes per char, so the content stays within the configured MB
+         */
+        public Long contentMemoryBudgetChars() {
+            return contentMemoryBudgetMb != null && contentMemoryBudgetMb > 0
+                    ? contentMemoryBudgetMb * 1024L * 1024L / Character.BYTES : null;
+        }
     }
 
     @Data
@@ -48,7 +60,67 @@ public class AIReviewerProperties {
         private Boolean enableDownloadScript = false;
         private String downloadScriptPath = "/home/jinhua/AI-Reviewer/download";
         private Integer scanIntervalMinutes = 2;
+        /**
+         * Review attempts of one project run at the same time; the first valid score wins
+         */
+        private Integer parallelAttempts = 1;
+        /**
+         * Start another attempt when none has finished after this many seconds (null starts all at once)
+         */
+        private Integer hedgeDelaySeconds;
+        /**
+         * Stream attempts that may be retried and cancel them as soon as a low score is printed
+         */
+        private Boolean earlyAbortLowScore = false;
     }
 
     private Batch batch = new Batch();
+
+    @Data
+    public static class Compaction {
+        private Boolean enabled = false;
+        private Long thresholdBytes = 32 * 1024L;
+        private Integer excerptLines = 40;
+    }
+
+    private Compaction compaction = new Compaction();
+
+    @Data
+    public static class Packing {
+        private Boolean enabled = false;
+        private Integer tokenBudget = 24000;
+        private Integer chunkOverlapTokens = 200;
+    }
+
+    private Packing packing = new Packing();
+
+    @Data
+    public static class MapReduce {
+        private Boolean enabled = false;
+        private Integer thresholdTokens = 100000;
+        private Integer chunkTokens = 30000;
+        private Integer summaryMaxTokens = 1500;
+    }
+
+    private MapReduce mapReduce = new MapReduce();
+
+    @Data
+    public static class FileSelection {
+        private Boolean enabled = false;
+        private Integer tokenBudget = 80000;
+    }
+
+    private FileSelection fileSelection = new FileSelection();
+
+    @Data
+    public static class BatchInference {
+        private Boolean enabled = false;
+        private String provider;
+        private String workDir = "./temp/batch-jobs";
+        private Integer maxRequestsPerJob = 200;
+        private Integer pollIntervalSeconds = 60;
+        private Integer maxWaitMinutes = 24 * 60;
+    }
+
+    private BatchInference batchInference = new BatchInference();
 }
@@ -5,22 +5,38 @@ import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
 import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithResponseStreamRequest;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithResponseStreamResponseHandler;
+import software.amazon.awssdk.services.bedrockruntime.model.PayloadPart;
+import software.amazon.awssdk.services.bedrockruntime.model.ResponseStream;
 import top.yumbo.ai.api.ai.IAIService;
+import top.yumbo.ai.api.ai.IStreamListener;
 import top.yumbo.ai.api.model.AIConfig;
 import top.yumbo.ai.api.model.AIResponse;
+import top.yumbo.ai.api.model.HttpClientConfig;
 import top.yumbo.ai.api.model.PreProcessedData;
+import top.yumbo.ai.common.util.PromptUtil;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 /**
  * AWS Bedrock AI服务适配器
@@ -34,8 +50,8 @@ import java.util.List;
 public class BedrockAdapter implements IAIService {
 
     private final BedrockRuntimeClient bedrockClient;
+    private volatile BedrockRuntimeAsyncClient asyncClient;
     private AIConfig config;
-    private String modelId;
     private Integer maxTokens;
     private double temperature;
     private Double topP; // Top P for nucleus sampling
@@ -51,13 +67,16 @@ public class BedrockAdapter implements IAIService {
         this.temperature = config.getTemperature();
         this.topP = config.getTopP() != null ? config.getTopP() : 0.9; // 默认 0.9
 
-        this.modelId = extractModelId(config.getModel());
-
         // 配置 HTTP 客户端，设置 socket 超时
+        // 连接池大小与空闲保活时间使用 ai.http 配置
+        HttpClientConfig http = config.getHttp() != null ? config.getHttp() : new HttpClientConfig();
         ApacheHttpClient.Builder httpClientBuilder =
                 ApacheHttpClient.builder()
                         .socketTimeout(java.time.Duration.ofSeconds(config.getTimeoutSeconds()))
-                        .connectionTimeout(java.time.Duration.ofSeconds(30));
+                        .connectionTimeout(java.time.Duration.ofSeconds(30))
+                        .maxConnections(http.maxRequestsOrDefault())
+                        .connectionMaxIdleTime(java.time.Duration.ofSeconds(http.keepAliveSecondsOrDefault()))
+                        .tcpKeepAlive(true);
 
         // 初始化 Bedrock 客户端
         var clientBuilder = BedrockRuntimeClient.builder()
@@ -95,26 +114,21 @@ public class BedrockAdapter implements IAIService {
 
     /**
      * 构建请求体（根据模型类型）
-     * 支持 AWS Bedrock 平台上的所有主流模型
+     * 支持 AWS Bedrock 平台上的所有主流模型；模型和生成参数取自本次调用的配置，路由到其他模型时请求格式随之变化
      */
-    private String buildRequestBody(String prompt) {
+    private String buildRequestBody(String prompt, AIConfig config) {
         JSONObject requestBody = new JSONObject();
 
         // 提取实际的模型名称（处理 ARN 格式）
         String actualModelId = extractModelId(config.getModel());
+        Integer maxTokens = maxTokens(config);
+        double temperature = temperature(config);
+        Double topP = config.getTopP() != null ? config.getTopP() : this.topP;
 
         // Anthropic Claude 模型系列
         if (actualModelId.contains("anthropic.claude") || actualModelId.contains("claude-")) {
 
-            // 检测是否为 Claude 3+ 模型（需要使用 Messages API）
-            // 包括 Claude 3, Claude 4 及以上版本
-            boolean isClaude3Plus = actualModelId.contains("claude-3") ||
-                    actualModelId.contains("claude-4") ||
-                    actualModelId.contains("claude-sonnet") ||
-                    actualModelId.contains("claude-haiku") ||
-                    actualModelId.contains("claude-opus");
-
-            if (isClaude3Plus) {
+            if (isClaude3Plus(actualModelId)) {
                 // Claude 3+ Messages API 格式
                 JSONObject message = new JSONObject();
                 message.put("role", "user");
@@ -257,6 +271,385 @@ public class BedrockAdapter implements IAIService {
         return requestBody.toJSONString();
     }
 
+    /**
+     * 本次调用的最大输出 token 数，未配置时使用适配器的默认值
+     */
+    private Integer maxTokens(AIConfig config) {
+        return config.getMaxTokens() != null ? config.getMaxTokens() : maxTokens;
+    }
+
+    private double temperature(AIConfig config) {
+        return config.getTemperature() != null ? config.getTemperature() : temperature;
+    }
+
+    /**
+     * 检测是否为 Claude 3+ 模型（需要使用 Messages API）
+     * 包括 Claude 3, Claude 4 及以上版本
+     */
+    private boolean isClaude3Plus(String actualModelId) {
+        return (actualModelId.contains("anthropic.claude") || actualModelId.contains("claude-")) &&
+                (actualModelId.contains("claude-3") ||
+                        actualModelId.contains("claude-4") ||
+                        actualModelId.contains("claude-sonnet") ||
+                        actualModelId.contains("claude-haiku") ||
+                        actualModelId.contains("claude-opus"));
+    }
+
+    /**
+     * 是否支持 Bedrock 提示词缓存（Claude 3+ 的 cache_control，Nova 的 cachePoint）
+     */
+    private boolean supportsPromptCaching(String actualModelId) {
+        return isClaude3Plus(actualModelId) || actualModelId.contains("amazon.nova");
+    }
+
+    /**
+     * 构建带提示词缓存的请求体
+     * 静态前缀（系统提示词 + 评审规则）在前并标记为可缓存，项目内容放在最后
+     */
+    private String buildCachedRequestBody(AIConfig config, String staticPrefix, String variablePart) {
+        JSONObject requestBody = new JSONObject();
+        String actualModelId = extractModelId(config.getModel());
+        String sysPrompt = config.getSysPrompt();
+        Integer maxTokens = maxTokens(config);
+        double temperature = temperature(config);
+        JSONObject message = new JSONObject();
+        message.put("role", "user");
+
+        if (isClaude3Plus(actualModelId)) {
+            // Claude: cache_control 断点会缓存其之前的 system 和 messages 内容
+            if (StringUtils.isNotBlank(sysPrompt)) {
+                requestBody.put("system", new Object[]{
+                        new JSONObject().fluentPut("type", "text").fluentPut("text", sysPrompt)
+                });
+            }
+            message.put("content", new Object[]{
+                    new JSONObject().fluentPut("type", "text").fluentPut("text", staticPrefix)
+                            .fluentPut("cache_control", new JSONObject().fluentPut("type", "ephemeral")),
+                    new JSONObject().fluentPut("type", "text").fluentPut("text", variablePart)
+            });
+            requestBody.put("anthropic_version", "bedrock-2023-05-31");
+            requestBody.put("max_tokens", maxTokens);
+            requestBody.put("messages", new Object[]{message});
+            requestBody.put("temperature", temperature);
+        } else {
+            // Nova: 使用 cachePoint 标记缓存断点
+            if (StringUtils.isNotBlank(sysPrompt)) {
+                requestBody.put("system", new Object[]{new JSONObject().fluentPut("text", sysPrompt)});
+            }
+            message.put("content", new Object[]{
+                    new JSONObject().fluentPut("text", staticPrefix),
+                    new JSONObject().fluentPut("cachePoint", new JSONObject().fluentPut("type", "default")),
+                    new JSONObject().fluentPut("text", variablePart)
+            });
+            requestBody.put("messages", new Object[]{message});
+            JSONObject inferenceConfig = new JSONObject();
+            inferenceConfig.put("max_new_tokens", maxTokens);
+            inferenceConfig.put("temperature", temperature);
+            inferenceConfig.put("top_p", 0.9);
+            requestBody.put("inferenceConfig", inferenceConfig);
+        }
+        return requestBody.toJSONString();
+    }
+
+    /**
+     * 解析 token 用量，包括提示词缓存的写入/读取数量
+     * Claude: cache_creation_input_tokens / cache_read_input_tokens
+     * Nova: cacheWriteInputTokenCount / cacheReadInputTokenCount
+     */
+    private AIResponse.TokenUsage parseTokenUsage(JSONObject usage) {
+        if (usage == null) {
+            return null;
+        }
+        AIResponse.TokenUsage tokenUsage = AIResponse.TokenUsage.builder()
+                .inputTokens(firstInteger(usage, "input_tokens", "inputTokens", "prompt_tokens"))
+                .outputTokens(firstInteger(usage, "output_tokens", "outputTokens", "completion_tokens"))
+                .cacheCreationInputTokens(firstInteger(usage, "cache_creation_input_tokens", "cacheWriteInputTokenCount"))
+                .cacheRInputTokens(firstInteger(usage, "cache_read_input_tokens", "cacheReadInputTokenCount"))
+                .build();
+        if (tokenUsage.getCacheRInputTokens() != null && tokenUsage.getCacheRInputTokens() > 0) {
+            log.debug("提示词缓存命中: 读取 {} tokens", tokenUsage.getCacheRInputTokens());
+        }
+        return tokenUsage;
+    }
+
+    private Integer firstInteger(JSONObject json, String... keys) {
+        for (String key : keys) {
+            Integer value = json.getInteger(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据提示词模板和项目内容构建请求体，启用提示词缓存时使用缓存格式
+     */
+    private String prepareRequestBody(PreProcessedData data, AIConfig config) {
+        String userPrompt = config.getUserPrompt();
+        if (StringUtils.isEmpty(userPrompt)) {
+            log.warn("userPrompt 为空,使用默认提示词");
+            userPrompt = "please analyze:\n%s";
+        }
+        if (Boolean.TRUE.equals(config.getPromptCaching()) && userPrompt.contains(PromptUtil.PLACEHOLDER)
+                && supportsPromptCaching(extractModelId(config.getModel()))) {
+            return buildCachedRequestBody(config, PromptUtil.staticPrefix(userPrompt),
+                    PromptUtil.variablePart(userPrompt, data.getContent()));
+        }
+        // 使用 replace 而不是 String.format 避免提示词中的特殊字符（如 '+', '%'）被误认为格式化标志
+        return buildRequestBody(PromptUtil.format(userPrompt, data.getContent()), config);
+    }
+
+    /**
+     * 获取异步客户端（首次使用时创建）
+     * 基于 Netty NIO，少量事件循环线程即可服务所有并发的流式调用
+     */
+    private BedrockRuntimeAsyncClient getAsyncClient() {
+        BedrockRuntimeAsyncClient client = asyncClient;
+        if (client == null) {
+            synchronized (this) {
+                client = asyncClient;
+                if (client == null) {
+                    HttpClientConfig http = config.getHttp() != null ? config.getHttp() : new HttpClientConfig();
+                    client = BedrockRuntimeAsyncClient.builder()
+                            .region(Region.of(config.getRegion()))
+                            .credentialsProvider(DefaultCredentialsProvider.create())
+                            .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                                    .maxConcurrency(http.maxRequestsOrDefault())
+                                    .connectionMaxIdleTime(java.time.Duration.ofSeconds(http.keepAliveSecondsOrDefault()))
+                                    .tcpKeepAlive(true)
+                                    .readTimeout(java.time.Duration.ofSeconds(config.getTimeoutSeconds()))
+                                    .connectionTimeout(java.time.Duration.ofSeconds(30)))
+                            .overrideConfiguration(builder -> builder
+                                    .apiCallTimeout(java.time.Duration.ofSeconds(config.getTimeoutSeconds()))
+                                    .retryPolicy(retry -> retry.numRetries(config.getMaxRetries())))
+                            .build();
+                    asyncClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    @Override
+    public AIResponse invokeStream(PreProcessedData data, AIConfig config, IStreamListener listener) throws Exception {
+        try {
+            return invokeStreamAsync(data, config, listener).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("Bedrock 流式调用失败: {}", cause.getMessage(), cause);
+            throw new RuntimeException("Bedrock 模型调用失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return true;
+    }
+
+    /**
+     * 异步流式调用（InvokeModelWithResponseStream）
+     * 内容增量到达时回调 listener，listener 返回 false 时取消订阅并以已收到的内容结束；
+     * 取消返回的 future 同样会取消底层请求
+     *
+     * @return 由累积的增量构建的 AIResponse
+     */
+    public CompletableFuture<AIResponse> invokeStreamAsync(PreProcessedData data, AIConfig config, IStreamListener listener) {
+        if (data == null || StringUtils.isEmpty(data.getContent())) {
+            return CompletableFuture.completedFuture(AIResponse.builder().build());
+        }
+        String requestBody = prepareRequestBody(data, config);
+        log.debug("流式调用 Bedrock 模型 - Model ID: {}, Region: {}", config.getModel(), config.getRegion());
+        InvokeModelWithResponseStreamRequest request = InvokeModelWithResponseStreamRequest.builder()
+                .modelId(config.getModel())
+                .contentType("application/json")
+                .body(SdkBytes.fromString(requestBody, StandardCharsets.UTF_8))
+                .build();
+
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<AIResponse> result = new CompletableFuture<>();
+        StreamState state = new StreamState();
+        InvokeModelWithResponseStreamResponseHandler handler = InvokeModelWithResponseStreamResponseHandler.builder()
+                .onEventStream(publisher -> publisher.subscribe(new Subscriber<ResponseStream>() {
+                    @Override
+                    public void onSubscribe(Subscription subscription) {
+                        state.subscription = subscription;
+                        subscription.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(ResponseStream event) {
+                        if (!(event instanceof PayloadPart part) || result.isDone()) {
+                            return;
+                        }
+                        String delta = state.accept(JSONObject.parseObject(part.bytes().asUtf8String()));
+                        if (StringUtils.isEmpty(delta)) {
+                            return;
+                        }
+                        if (state.timeToFirstTokenMs == null) {
+                            state.timeToFirstTokenMs = System.currentTimeMillis() - startTime;
+                            log.info("Bedrock 首个 token 耗时 {} ms", state.timeToFirstTokenMs);
+                        }
+                        state.content.append(delta);
+                        if (listener != null && !listener.onDelta(delta)) {
+                            log.info("流式调用被取消，已接收 {} 个字符", state.content.length());
+                            state.stopReason = "cancelled";
+                            state.subscription.cancel();
+                            result.complete(state.toResponse(config, getProviderName(), startTime));
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        result.complete(state.toResponse(config, getProviderName(), startTime));
+                    }
+                }))
+                .build();
+
+        CompletableFuture<Void> call = getAsyncClient().invokeModelWithResponseStream(request, handler);
+        call.whenComplete((ignored, error) -> {
+            if (error != null && !result.isDone()) {
+                result.completeExceptionally(error);
+            } else if (!result.isDone()) {
+                result.complete(state.toResponse(config, getProviderName(), startTime));
+            }
+        });
+        // 调用方取消时同时取消底层请求
+        result.whenComplete((ignored, error) -> {
+            if (result.isCancelled()) {
+                if (state.subscription != null) {
+                    state.subscription.cancel();
+                }
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 流式响应的累积状态；同一订阅的事件按顺序串行到达
+     */
+    private static class StreamState {
+        private final StringBuilder content = new StringBuilder();
+        private volatile Subscription subscription;
+        private Long timeToFirstTokenMs;
+        private String stopReason;
+        private Integer inputTokens;
+        private Integer outputTokens;
+        private Integer cacheCreationInputTokens;
+        private Integer cacheReadInputTokens;
+
+        /**
+         * 解析一个数据块，记录停止原因和用量，返回其中的文本增量
+         * 支持 Claude Messages、Nova、OpenAI 兼容（如 Palmyra）以及 Llama/Titan/Mistral/Claude 2 的文本格式
+         */
+        private String accept(JSONObject chunk) {
+            // Bedrock 在最后一个块中附带的调用统计
+            JSONObject metrics = chunk.getJSONObject("amazon-bedrock-invocationMetrics");
+            if (metrics != null) {
+                inputTokens = inputTokens != null ? inputTokens : metrics.getInteger("inputTokenCount");
+                outputTokens = outputTokens != null ? outputTokens : metrics.getInteger("outputTokenCount");
+            }
+            String type = chunk.getString("type");
+            if (type != null) {
+                // Claude Messages API 事件
+                switch (type) {
+                    case "message_start" -> {
+                        JSONObject usage = chunk.getJSONObject("message").getJSONObject("usage");
+                        if (usage != null) {
+                            inputTokens = usage.getInteger("input_tokens");
+                            cacheCreationInputTokens = usage.getInteger("cache_creation_input_tokens");
+                            cacheReadInputTokens = usage.getInteger("cache_read_input_tokens");
+                        }
+                    }
+                    case "content_block_delta" -> {
+                        return chunk.getJSONObject("delta").getString("text");
+                    }
+                    case "message_delta" -> {
+                        stopReason = chunk.getJSONObject("delta").getString("stop_reason");
+                        JSONObject usage = chunk.getJSONObject("usage");
+                        if (usage != null) {
+                            outputTokens = usage.getInteger("output_tokens");
+                        }
+                    }
+                    default -> {
+                    }
+                }
+                return null;
+            }
+            if (chunk.containsKey("contentBlockDelta")) {
+                // Nova
+                JSONObject delta = chunk.getJSONObject("contentBlockDelta").getJSONObject("delta");
+                return delta != null ? delta.getString("text") : null;
+            }
+            if (chunk.containsKey("messageStop")) {
+                stopReason = chunk.getJSONObject("messageStop").getString("stopReason");
+                return null;
+            }
+            if (chunk.containsKey("metadata")) {
+                JSONObject usage = chunk.getJSONObject("metadata").getJSONObject("usage");
+                if (usage != null) {
+                    inputTokens = usage.getInteger("inputTokens");
+                    outputTokens = usage.getInteger("outputTokens");
+                    cacheCreationInputTokens = usage.getInteger("cacheWriteInputTokenCount");
+                    cacheReadInputTokens = usage.getInteger("cacheReadInputTokenCount");
+                }
+                return null;
+            }
+            JSONArray choices = chunk.getJSONArray("choices");
+            if (choices != null && !choices.isEmpty()) {
+                // OpenAI 兼容格式
+                JSONObject choice = choices.getJSONObject(0);
+                if (choice.getString("finish_reason") != null) {
+                    stopReason = choice.getString("finish_reason");
+                }
+                JSONObject delta = choice.getJSONObject("delta");
+                return delta != null ? delta.getString("content") : null;
+            }
+            if (chunk.getString("stop_reason") != null) {
+                stopReason = chunk.getString("stop_reason");
+            }
+            for (String key : new String[]{"generation", "outputText", "completion"}) {
+                if (chunk.containsKey(key)) {
+                    return chunk.getString(key);
+                }
+            }
+            JSONArray outputs = chunk.getJSONArray("outputs");
+            if (outputs != null && !outputs.isEmpty()) {
+                // Mistral
+                return outputs.getJSONObject(0).getString("text");
+            }
+            return null;
+        }
+
+        private AIResponse toResponse(AIConfig config, String provider, long startTime) {
+            Map<String, Object> metadata = new HashMap<>();
+            if (timeToFirstTokenMs != null) {
+                metadata.put(IStreamListener.METADATA_TIME_TO_FIRST_TOKEN_MS, timeToFirstTokenMs);
+            }
+            return AIResponse.builder()
+                    .content(content.toString())
+                    .model(config.getModel())
+                    .provider(provider)
+                    .processingTimeMs(System.currentTimeMillis() - startTime)
+                    .timestamp(LocalDateTime.now())
+                    .tokenUsage(AIResponse.TokenUsage.builder()
+                            .inputTokens(inputTokens)
+                            .outputTokens(outputTokens)
+                            .cacheCreationInputTokens(cacheCreationInputTokens)
+                            .cacheRInputTokens(cacheReadInputTokens)
+                            .build())
+                    .stopReason(stopReason)
+                    .metadata(metadata)
+                    .build();
+        }
+    }
+
     @Override
     public String[] getSupportedModels() {
         return IAIService.super.getSupportedModels();
@@ -268,19 +661,14 @@ public class BedrockAdapter implements IAIService {
             if (data == null || StringUtils.isEmpty(data.getContent())) {
                 return AIResponse.builder().build();
             }
-            String userPrompt = config.getUserPrompt();
-            if (StringUtils.isEmpty(userPrompt)) {
-                log.warn("userPrompt 为空,使用默认提示词");
-                userPrompt = "please analyze:\n%s";
+            if (Boolean.TRUE.equals(config.getStream())) {
+                return invokeStream(data, config, null);
             }
-
             // 构建请求体（根据不同模型格式会有所不同）
             log.info(config.toString());
-            // 使用 replace 而不是 String.format 避免提示词中的特殊字符（如 '+', '%'）被误认为格式化标志
-            String formattedPrompt = userPrompt.replace("%s", data.getContent());
-            String requestBody = buildRequestBody(formattedPrompt);
+            String requestBody = prepareRequestBody(data, config);
 
-            log.debug("调用 Bedrock 模型 - Model ID: {}, Region: {}", modelId, config.getRegion());
+            log.debug("调用 Bedrock 模型 - Model ID: {}, Region: {}", config.getModel(), config.getRegion());
             log.debug("请求体: {}", requestBody);
 
             // 调用模型
@@ -292,47 +680,7 @@ public class BedrockAdapter implements IAIService {
 
             InvokeModelResponse response = bedrockClient.invokeModel(request);
 
-            // 解析响应
-            JSONObject responseBody = JSONObject.parseObject(response.body().asUtf8String());
-            log.debug("响应体: {}", responseBody);
-            // Parse response
-            JSONArray contentArray;
-            StringBuilder sb = new StringBuilder();
-            if (modelId.contains("writer.palmyra")) {
-                contentArray = responseBody.getJSONArray("choices");
-                JSONObject[] msgArr = new JSONObject[contentArray.size()];
-                for (int i = 0; i < contentArray.size(); i++) {
-                    JSONObject msg = contentArray.getJSONObject(i);
-                    Integer index = msg.getInteger("index");
-                    msgArr[index] = msg;
-                }
-                for (JSONObject contentObj : msgArr) {
-                    String content = contentObj.getJSONObject("message").getString("content");
-                    sb.append(content).append("\n");
-                }
-            } else {
-                contentArray = responseBody.getJSONArray("content");
-                for (int i = 0; i < contentArray.size(); i++) {
-                    JSONObject contentObj = contentArray.getJSONObject(i);
-                    String type = contentObj.getString("type");
-                    String content = contentObj.getString(type);
-                    sb.append(content).append("\n");
-                }
-            }
-
-            JSONObject usage = responseBody.getJSONObject("usage");
-            AIResponse.TokenUsage tokenUsage = AIResponse.TokenUsage.builder()
-                    .inputTokens(usage.getInteger("input_tokens"))
-                    .outputTokens(usage.getInteger("output_tokens"))
-                    .build();
-            return AIResponse.builder()
-                    .content(sb.toString())
-                    .model(config.getModel())
-                    .provider(getProviderName())
-                    .processingTimeMs(0L)
-                    .timestamp(LocalDateTime.now())
-                    .tokenUsage(tokenUsage)
-                    .build();
+            return parseResponse(response.body().asUtf8String(), config);
 
         } catch (Exception e) {
             log.error("调用 Bedrock 模型失败: {}", e.getMessage(), e);
@@ -340,6 +688,90 @@ public class BedrockAdapter implements IAIService {
         }
     }
 
+    /**
+     * 解析非流式响应
+     */
+    private AIResponse parseResponse(String responseText, AIConfig config) {
+        JSONObject responseBody = JSONObject.parseObject(responseText);
+        log.debug("响应体: {}", responseBody);
+        // Parse response
+        JSONArray contentArray;
+        StringBuilder sb = new StringBuilder();
+        if (extractModelId(config.getModel()).contains("writer.palmyra")) {
+            contentArray = responseBody.getJSONArray("choices");
+            JSONObject[] msgArr = new JSONObject[contentArray.size()];
+            for (int i = 0; i < contentArray.size(); i++) {
+                JSONObject msg = contentArray.getJSONObject(i);
+                Integer index = msg.getInteger("index");
+                msgArr[index] = msg;
+            }
+            for (JSONObject contentObj : msgArr) {
+                String content = contentObj.getJSONObject("message").getString("content");
+                sb.append(content).append("\n");
+            }
+        } else {
+            // Nova 的内容位于 output.message.content，且内容块没有 type 字段
+            contentArray = responseBody.containsKey("output")
+                    ? responseBody.getJSONObject("output").getJSONObject("message").getJSONArray("content")
+                    : responseBody.getJSONArray("content");
+            for (int i = 0; i < contentArray.size(); i++) {
+                JSONObject contentObj = contentArray.getJSONObject(i);
+                String type = contentObj.getString("type");
+                String content = contentObj.getString(type != null ? type : "text");
+                sb.append(content).append("\n");
+            }
+        }
+
+        AIResponse.TokenUsage tokenUsage = parseTokenUsage(responseBody.getJSONObject("usage"));
+        return AIResponse.builder()
+                .content(sb.toString())
+                .model(config.getModel())
+                .provider(getProviderName())
+                .processingTimeMs(0L)
+                .timestamp(LocalDateTime.now())
+                .tokenUsage(tokenUsage)
+                .build();
+    }
+
+    /**
+     * 使用异步客户端的非阻塞调用，请求在 Netty 事件循环上完成，不占用调用方线程；
+     * 流式模式下使用 invokeStreamAsync
+     */
+    @Override
+    public CompletableFuture<AIResponse> invokeAsync(PreProcessedData data, AIConfig config, Executor executor) {
+        if (data == null || StringUtils.isEmpty(data.getContent())) {
+            return CompletableFuture.completedFuture(AIResponse.builder().build());
+        }
+        if (Boolean.TRUE.equals(config.getStream())) {
+            return invokeStreamAsync(data, config, null);
+        }
+        InvokeModelRequest request = InvokeModelRequest.builder()
+                .modelId(config.getModel())
+                .contentType("application/json")
+                .body(SdkBytes.fromString(prepareRequestBody(data, config), StandardCharsets.UTF_8))
+                .build();
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<InvokeModelResponse> call = getAsyncClient().invokeModel(request);
+        CompletableFuture<AIResponse> result = call
+                .thenApply(response -> {
+                    AIResponse aiResponse = parseResponse(response.body().asUtf8String(), config);
+                    aiResponse.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+                    return aiResponse;
+                })
+                .whenComplete((ignored, error) -> {
+                    if (error != null && !call.isCancelled()) {
+                        log.error("异步调用 Bedrock 模型失败: {}", error.getMessage(), error);
+                    }
+                });
+        // 调用方取消时同时取消底层请求
+        result.whenComplete((ignored, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
     @Override
     public boolean isAvailable() {
         return true;
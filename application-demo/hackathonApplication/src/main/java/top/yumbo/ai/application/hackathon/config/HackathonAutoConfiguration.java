@@ -6,6 +6,8 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import top.yumbo.ai.adaptor.ai.LocalBatchAIService;
+import top.yumbo.ai.api.ai.IAIService;
 import top.yumbo.ai.api.model.AIConfig;
 import top.yumbo.ai.api.model.ProcessResult;
 import top.yumbo.ai.api.model.ProcessorConfig;
@@ -16,6 +18,7 @@ import top.yumbo.ai.application.hackathon.parser.HackathonFileParser;
 import top.yumbo.ai.application.hackathon.processor.HackathonCodeReviewProcessor;
 import top.yumbo.ai.application.hackathon.web.service.AccountService;
 import top.yumbo.ai.application.hackathon.web.service.FileUploadService;
+import top.yumbo.ai.core.balance.LoadBalancedAIService;
 import top.yumbo.ai.core.context.ExecutionContext;
 import top.yumbo.ai.core.registry.AdapterRegistry;
 import top.yumbo.ai.starter.config.AIReviewerProperties;
@@ -70,9 +73,16 @@ public class HackathonAutoConfiguration {
         // remove default parser for hackathon
         registry.clearParsers();
         registry.clearAIServices();
+        registry.clearBatchAIServices();
         registry.clearProcessors();
         registry.registerParser(new HackathonFileParser());
-        registry.registerAIService(new BedrockAdapter(aiConfig));
+        // 配置了 ai.endpoints 时按延迟与配额在多个区域之间分配请求
+        IAIService bedrockService = LoadBalancedAIService.create(aiConfig, BedrockAdapter::new);
+        registry.registerAIService(bedrockService);
+        // Bedrock 批量推理任务需要控制面 SDK，这里用本地文件实现代替
+        registry.registerBatchAIService(new LocalBatchAIService(
+                Paths.get(aiReviewerProperties.getBatchInference().getWorkDir()), bedrockService,
+                aiReviewerProperties.getBatch().getThreadPoolSize()));
         registry.registerProcessor(new HackathonCodeReviewProcessor());
         registry.loadAdaptersFromSPI();
     }
@@ -178,7 +188,7 @@ public class HackathonAutoConfiguration {
                 runBatchReviewContinuous(hackathonAIEngineV2, finalReviewAllPath);
             } else if (reviewPath != null) {
                 // Single review mode
-                runReview(hackathonAIEngine, aiReviewerProperties, reviewPath);
+                runReview(hackathonAIEngine, hackathonAIEngineV2, aiReviewerProperties, reviewPath);
             } else {
                 log.info("No --review or --reviewAll argument provided; web interface is available for uploads.");
                 log.info("Please use --reviewAll=<path> to enable batch review mode with web uploads.");
@@ -200,11 +210,12 @@ public class HackathonAutoConfiguration {
         return tokens;
     }
 
-    private void runReview(HackathonAIEngine hackathonAIEngine, AIReviewerProperties properties, String targetPath) {
+    private void runReview(HackathonAIEngine hackathonAIEngine, HackathonAIEngineV2 hackathonAIEngineV2,
+                           AIReviewerProperties properties, String targetPath) {
         log.info("Starting code review for: {}", targetPath);
 
         ProcessorConfig processorConfig = ProcessorConfig.builder().processorType(properties.getProcessor().getType()).outputFormat(properties.getProcessor().getOutputFormat()).outputPath(Paths.get(properties.getProcessor().getOutputPath(), new File(targetPath).getName() + "-review-report.md")).build();
-        ExecutionContext context = ExecutionContext.builder().targetDirectory(Paths.get(targetPath)).includePatterns(properties.getScanner().getIncludePatterns()).excludePatterns(properties.getScanner().getExcludePatterns()).aiConfig(aiConfig).processorConfig(processorConfig).threadPoolSize(properties.getExecutor().getThreadPoolSize()).build();
+        ExecutionContext context = hackathonAIEngineV2.buildProjectContext(Paths.get(targetPath), aiConfig, processorConfig);
         // Execute
         ProcessResult result = hackathonAIEngine.execute(context);
         if (result.isSuccess()) {
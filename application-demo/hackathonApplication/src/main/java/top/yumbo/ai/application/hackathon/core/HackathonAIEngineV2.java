@@ -2,11 +2,19 @@ package top.yumbo.ai.application.hackathon.core;
 
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import top.yumbo.ai.api.ai.IAIService;
+import top.yumbo.ai.api.ai.IBatchAIService;
+import top.yumbo.ai.api.ai.IStreamListener;
 import top.yumbo.ai.api.model.AIConfig;
+import top.yumbo.ai.api.model.AIResponse;
+import top.yumbo.ai.api.model.BatchRequest;
+import top.yumbo.ai.api.model.PreProcessedData;
 import top.yumbo.ai.api.model.ProcessResult;
 import top.yumbo.ai.api.model.ProcessorConfig;
 import top.yumbo.ai.application.hackathon.util.ScoreExtractor;
+import top.yumbo.ai.application.hackathon.util.ScoreStreamDetector;
 import top.yumbo.ai.application.hackathon.util.ZipUtil;
+import top.yumbo.ai.core.context.CancellationToken;
 import top.yumbo.ai.core.context.ExecutionContext;
 import top.yumbo.ai.starter.config.AIReviewerProperties;
 
@@ -16,10 +24,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.Comparator;
 
@@ -44,6 +55,7 @@ public class HackathonAIEngineV2 {
     private static final long DEFAULT_SCAN_INTERVAL_MS = 2 * 60 * 1000; // 2 minutes
     private static final double MIN_VALID_SCORE = 30.0; // Minimum valid score threshold
     private static final int MAX_RETRY_ATTEMPTS = 3; // Maximum retry attempts for low scores
+    private static final long ATTEMPT_SHUTDOWN_SECONDS = 30; // Wait for cancelled attempts to stop
 
     private final HackathonAIEngine baseEngine;
     private final AIReviewerProperties properties;
@@ -71,6 +83,34 @@ public class HackathonAIEngineV2 {
         return Paths.get("./temp/extracted-projects");
     }
 
+    /**
+     * Review attempts of one project in flight at a time, at most {@link #MAX_RETRY_ATTEMPTS}
+     */
+    private int getParallelAttempts() {
+        Integer parallelAttempts = properties.getBatch() != null ? properties.getBatch().getParallelAttempts() : null;
+        return parallelAttempts != null ? Math.max(1, Math.min(parallelAttempts, MAX_RETRY_ATTEMPTS)) : 1;
+    }
+
+    /**
+     * Delay after which another attempt is started while none has finished, or null to start them all at once
+     */
+    private Long getHedgeDelayMs() {
+        Integer seconds = properties.getBatch() != null ? properties.getBatch().getHedgeDelaySeconds() : null;
+        return seconds != null && seconds > 0 ? seconds * 1000L : null;
+    }
+
+    /**
+     * Whether attempts are streamed and cut short on a low score; needs a streaming AI service
+     */
+    private boolean isEarlyAbortEnabled() {
+        if (properties.getBatch() == null || !Boolean.TRUE.equals(properties.getBatch().getEarlyAbortLowScore())) {
+            return false;
+        }
+        return baseEngine.getRegistry().getAIService(properties.getAi().getProvider())
+                .map(IAIService::supportsStreaming)
+                .orElse(false);
+    }
+
     /**
      * Parse maxFileSize string (e.g., "10MB", "200KB") to bytes
      */
@@ -108,6 +148,82 @@ public class HackathonAIEngineV2 {
         }
     }
 
+    /**
+     * Get the large-file compaction threshold in bytes, or null if compaction is disabled
+     */
+    private Long getCompactionThreshold() {
+        AIReviewerProperties.Compaction compaction = properties.getCompaction();
+        if (compaction == null || !Boolean.TRUE.equals(compaction.getEnabled())) {
+            return null;
+        }
+        return compaction.getThresholdBytes();
+    }
+
+    private int getCompactionExcerptLines() {
+        AIReviewerProperties.Compaction compaction = properties.getCompaction();
+        if (compaction != null && compaction.getExcerptLines() != null) {
+            return compaction.getExcerptLines();
+        }
+        return 40; // default
+    }
+
+    /**
+     * Get the per-request token budget, or null if packing is disabled
+     */
+    private Integer getPromptTokenBudget() {
+        AIReviewerProperties.Packing packing = properties.getPacking();
+        if (packing == null || !Boolean.TRUE.equals(packing.getEnabled())) {
+            return null;
+        }
+        return packing.getTokenBudget();
+    }
+
+    private int getChunkOverlapTokens() {
+        AIReviewerProperties.Packing packing = properties.getPacking();
+        if (packing != null && packing.getChunkOverlapTokens() != null) {
+            return packing.getChunkOverlapTokens();
+        }
+        return 200; // default
+    }
+
+    /**
+     * Get the token budget for the files of a project prompt, or null if file selection is disabled
+     */
+    private Integer getFileSelectionTokenBudget() {
+        AIReviewerProperties.FileSelection fileSelection = properties.getFileSelection();
+        if (fileSelection == null || !Boolean.TRUE.equals(fileSelection.getEnabled())) {
+            return null;
+        }
+        return fileSelection.getTokenBudget();
+    }
+
+    /**
+     * Get the prompt size that switches a project to map-reduce review, or null if map-reduce is disabled
+     */
+    private Integer getMapReduceThresholdTokens() {
+        AIReviewerProperties.MapReduce mapReduce = properties.getMapReduce();
+        if (mapReduce == null || !Boolean.TRUE.equals(mapReduce.getEnabled())) {
+            return null;
+        }
+        return mapReduce.getThresholdTokens();
+    }
+
+    /**
+     * Apply the map-reduce part and summary sizes to a context
+     */
+    private void applyMapReduceLimits(ExecutionContext context) {
+        AIReviewerProperties.MapReduce mapReduce = properties.getMapReduce();
+        if (mapReduce == null) {
+            return;
+        }
+        if (mapReduce.getChunkTokens() != null) {
+            context.setMapReduceChunkTokens(mapReduce.getChunkTokens());
+        }
+        if (mapReduce.getSummaryMaxTokens() != null) {
+            context.setMapReduceSummaryMaxTokens(mapReduce.getSummaryMaxTokens());
+        }
+    }
+
     /**
      * Review a single project (original behavior)
      */
@@ -122,20 +238,48 @@ public class HackathonAIEngineV2 {
                     new File(targetPath).getName() + "-review-report.md"))
                 .build();
 
+        ExecutionContext context = buildProjectContext(Paths.get(targetPath), aiConfig, processorConfig);
+
+        return baseEngine.execute(context);
+    }
+
+    /**
+     * Build the execution context for reviewing one project directory, with the scanner, compaction,
+     * file selection, packing, map-reduce and memory settings of the configuration
+     */
+    public ExecutionContext buildProjectContext(Path targetDirectory, AIConfig aiConfig, ProcessorConfig processorConfig) {
         // Parse maxFileSize from configuration
         Long maxFileSize = parseMaxFileSize(properties.getScanner().getMaxFileSize());
 
         ExecutionContext context = ExecutionContext.builder()
-                .targetDirectory(Paths.get(targetPath))
+                .targetDirectory(targetDirectory)
                 .includePatterns(properties.getScanner().getIncludePatterns())
                 .excludePatterns(properties.getScanner().getExcludePatterns())
                 .maxFileSize(maxFileSize)
+                .skipGeneratedFiles(Boolean.TRUE.equals(properties.getScanner().getSkipGeneratedFiles()))
+                .compactionThreshold(getCompactionThreshold())
+                .compactionExcerptLines(getCompactionExcerptLines())
+                .fileSelectionTokenBudget(getFileSelectionTokenBudget())
+                .promptTokenBudget(getPromptTokenBudget())
+                .chunkOverlapTokens(getChunkOverlapTokens())
+                .mapReduceThresholdTokens(getMapReduceThresholdTokens())
                 .aiConfig(aiConfig)
                 .processorConfig(processorConfig)
                 .threadPoolSize(properties.getExecutor().getThreadPoolSize())
+                .contentMemoryBudget(properties.getExecutor().contentMemoryBudgetChars())
+                .offHeapContent(Boolean.TRUE.equals(properties.getExecutor().getOffHeapContent()))
+                .responseValidator(HackathonAIEngineV2::hasValidScore)
                 .build();
+        applyMapReduceLimits(context);
+        return context;
+    }
 
-        return baseEngine.execute(context);
+    /**
+     * A cheaper routed model's review is kept only if it carries a plausible score
+     */
+    public static boolean hasValidScore(AIResponse response) {
+        Double score = ScoreExtractor.extractScore(response.getContent());
+        return score != null && score >= MIN_VALID_SCORE;
     }
 
     /**
@@ -350,7 +494,6 @@ public class HackathonAIEngineV2 {
             }
 
             batchResult.setTotalProjects(tasks.size() + batchResult.getSkippedCount());
-            log.info("Will process {} new projects with {} threads", tasks.size(), batchThreadPoolSize);
 
             if (tasks.isEmpty()) {
                 batchResult.setSuccess(true);
@@ -358,6 +501,12 @@ public class HackathonAIEngineV2 {
                 return batchResult;
             }
 
+            // Non-urgent backlog: score through a batch inference job, leftovers go on demand
+            if (isBatchInferenceEnabled()) {
+                tasks = reviewWithBatchInference(tasks, batchResult);
+            }
+            log.info("Will process {} new projects with {} threads", tasks.size(), batchThreadPoolSize);
+
             // Process projects in parallel using thread pool
             ExecutorService executorService = Executors.newFixedThreadPool(batchThreadPoolSize);
             List<Future<ProjectReviewResult>> futures = new ArrayList<>();
@@ -573,99 +722,44 @@ public class HackathonAIEngineV2 {
         result.setRetryCount(0);
 
         Path extractedPath = null;
+        ExecutionContext context = null;
 
         try {
             // Extract ZIP once
             log.info("Extracting project from folder {}: {}", task.getFolderBName(), result.getZipFileName());
             extractedPath = ZipUtil.extractZip(task.getZipFilePath(), tempExtractDir);
 
-            // Retry loop: up to MAX_RETRY_ATTEMPTS times
-            for (int attempt = 1; attempt <= MAX_RETRY_ATTEMPTS; attempt++) {
-                log.info("Reviewing project: {}/{} (Attempt {}/{})",
-                    task.getFolderBName(), result.getZipFileName(), attempt, MAX_RETRY_ATTEMPTS);
-
-                AIConfig aiConfig = properties.getAi();
-
-                // Parse maxFileSize from configuration
-                Long maxFileSize = parseMaxFileSize(properties.getScanner().getMaxFileSize());
-
-                // Create processor config with custom output path
-                ProcessorConfig processorConfig = ProcessorConfig.builder()
-                        .processorType(properties.getProcessor().getType())
-                        .outputFormat(properties.getProcessor().getOutputFormat())
-                        .outputPath(null) // Will be set after getting score
-                        .build();
-
-                ExecutionContext context = ExecutionContext.builder()
-                        .targetDirectory(extractedPath)
-                        .includePatterns(properties.getScanner().getIncludePatterns())
-                        .excludePatterns(properties.getScanner().getExcludePatterns())
-                        .maxFileSize(maxFileSize)
-                        .aiConfig(aiConfig)
-                        .processorConfig(processorConfig)
-                        .threadPoolSize(properties.getExecutor().getThreadPoolSize())
-                        .build();
-
-                // Execute review with automatic anti-cheat filtering and README priority sorting
-                ProcessResult processResult = baseEngine.execute(context);
-
-                if (processResult.isSuccess()) {
-                    // Extract score from content
-                    Double score = ScoreExtractor.extractScore(processResult.getContent());
-                    result.setScore(score);
-
-                    // Extract overall comment from content
-                    String overallComment = ScoreExtractor.extractOverallComment(processResult.getContent());
-                    result.setOverallComment(overallComment);
-
-                    // Check if score is valid (not 0 and >= 30)
-                    boolean isValidScore = score != null && score > 0 && score >= MIN_VALID_SCORE;
-
-                    if (!isValidScore && attempt < MAX_RETRY_ATTEMPTS) {
-                        // Score is too low, retry
-                        log.warn("⚠️ Project {}/{} received low score: {} (Attempt {}/{}). Retrying...",
-                            task.getFolderBName(), result.getZipFileName(), score, attempt, MAX_RETRY_ATTEMPTS);
-                        result.setRetryCount(attempt);
-                        continue; // Retry
-                    }
+            // Prepare the prompt once, with automatic anti-cheat filtering and README priority sorting;
+            // retries only repeat the AI call
+            context = buildProjectContext(extractedPath, properties.getAi(), projectProcessorConfig());
+            PreProcessedData prompt = baseEngine.prepareReview(context);
 
-                    // Either score is valid, or we've exhausted retries
-                    result.setRetryCount(attempt - 1); // Record actual retry count (0 if first attempt succeeded)
+            ReviewAttempt attempt = reviewWithRetries(task, result, context, prompt);
+            ProcessResult processResult = attempt.processResult;
 
-                    if (!isValidScore) {
-                        // Final attempt still has low score
-                        log.error("❌ Project {}/{} still has low score after {} attempts: {}. Recording final result.",
-                            task.getFolderBName(), result.getZipFileName(), MAX_RETRY_ATTEMPTS, score);
-                    }
-
-                    // Get ZIP file name without extension for report
-                    String zipNameWithoutExt = ZipUtil.getProjectNameFromZip(task.getZipFilePath());
-
-                    // Generate report filename: FolderBName-Score-ZipFileName.md
-                    String reportFileName = task.getFolderBName() + "-" +
-                        ScoreExtractor.formatScoreForFilename(score) + "-" +
-                        zipNameWithoutExt + ".md";
-                    Path reportPath = Paths.get(properties.getProcessor().getOutputPath(), reportFileName);
+            if (processResult.isSuccess()) {
+                result.setScore(attempt.score);
 
-                    // Write report with score in filename
-                    Files.createDirectories(reportPath.getParent());
-                    Files.writeString(reportPath, processResult.getContent());
+                // Extract overall comment from content
+                String overallComment = ScoreExtractor.extractOverallComment(processResult.getContent());
+                result.setOverallComment(overallComment);
 
-                    result.setReportPath(reportPath);
-                    result.setSuccess(true);
+                if (!attempt.isValidScore()) {
+                    // Final attempt still has low score
+                    log.error("❌ Project {}/{} still has low score after {} attempts: {}. Recording final result.",
+                        task.getFolderBName(), result.getZipFileName(), result.getRetryCount() + 1, attempt.score);
+                }
 
-                    log.info("✅ Project {}/{} reviewed successfully with score: {} (Retry count: {})",
-                        task.getFolderBName(), result.getZipFileName(), score, result.getRetryCount());
+                writeReport(task, result, processResult.getContent());
 
-                    break; // Success, exit retry loop
+                log.info("✅ Project {}/{} reviewed successfully with score: {} (Retry count: {})",
+                    task.getFolderBName(), result.getZipFileName(), attempt.score, result.getRetryCount());
 
-                } else {
-                    result.setSuccess(false);
-                    result.setErrorMessage(processResult.getErrorMessage());
-                    log.error("Project {}/{} review failed: {}",
-                        task.getFolderBName(), result.getZipFileName(), processResult.getErrorMessage());
-                    break; // API call failed, don't retry
-                }
+            } else {
+                result.setSuccess(false);
+                result.setErrorMessage(processResult.getErrorMessage());
+                log.error("Project {}/{} review failed: {}",
+                    task.getFolderBName(), result.getZipFileName(), processResult.getErrorMessage());
             }
 
         } catch (Exception e) {
@@ -674,6 +768,7 @@ public class HackathonAIEngineV2 {
             log.error("Failed to process project {}/{}: {}",
                 task.getFolderBName(), result.getZipFileName(), e.getMessage(), e);
         } finally {
+            baseEngine.closeContentArena(context);
             // Cleanup extracted directory
             if (extractedPath != null) {
                 try {
@@ -689,6 +784,300 @@ public class HackathonAIEngineV2 {
         return result;
     }
 
+    /**
+     * Review a prepared project until an attempt returns a valid score, up to {@link #MAX_RETRY_ATTEMPTS} attempts.
+     * Up to {@link #getParallelAttempts()} attempts run at once, started together or, with a hedge delay,
+     * one more each time the delay passes without a finished attempt. A low score starts the next attempt;
+     * a failed API call does not. The first valid score wins and the attempts still running are cancelled.
+     * With early abort, an attempt that streams a low score is cancelled right away, so its retry starts
+     * without waiting for the rest of the review.
+     * The retry count of the result records the attempts started beyond the first.
+     *
+     * @return the winning attempt, or the best finished one when none scored validly, see {@link ReviewAttempt#rank()}
+     */
+    private ReviewAttempt reviewWithRetries(ProjectReviewTask task, ProjectReviewResult result,
+                                            ExecutionContext context, PreProcessedData prompt) throws InterruptedException {
+        int parallelAttempts = getParallelAttempts();
+        Long hedgeDelayMs = getHedgeDelayMs();
+        ExecutorService attemptPool = Executors.newFixedThreadPool(parallelAttempts);
+        CompletionService<ReviewAttempt> completionService = new ExecutorCompletionService<>(attemptPool);
+        Map<Future<ReviewAttempt>, CancellationToken> running = new HashMap<>();
+        int started = 0;
+        ReviewAttempt best = null;
+        try {
+            int initial = hedgeDelayMs != null ? 1 : parallelAttempts;
+            while (started < initial) {
+                startAttempt(task, result, context, prompt, ++started, completionService, running);
+            }
+            while (!running.isEmpty()) {
+                boolean canHedge = hedgeDelayMs != null && started < MAX_RETRY_ATTEMPTS && running.size() < parallelAttempts;
+                Future<ReviewAttempt> finished = canHedge
+                        ? completionService.poll(hedgeDelayMs, TimeUnit.MILLISECONDS)
+                        : completionService.take();
+                if (finished == null) {
+                    log.info("Project {}/{} has no result after {} ms, starting a hedged attempt",
+                        task.getFolderBName(), result.getZipFileName(), hedgeDelayMs);
+                    startAttempt(task, result, context, prompt, ++started, completionService, running);
+                    continue;
+                }
+                running.remove(finished);
+                ReviewAttempt attempt = getAttempt(finished);
+                // A later attempt replaces the kept one only when it ranks at least as high
+                if (best == null || attempt.rank() >= best.rank()) {
+                    best = attempt;
+                }
+                if (attempt.isValidScore()) {
+                    break;
+                }
+                if (attempt.processResult.isSuccess() && started < MAX_RETRY_ATTEMPTS) {
+                    // Score is too low, retry
+                    log.warn("⚠️ Project {}/{} received low score: {} (Attempt {}/{}). Retrying...",
+                        task.getFolderBName(), result.getZipFileName(), attempt.score, attempt.number, MAX_RETRY_ATTEMPTS);
+                    startAttempt(task, result, context, prompt, ++started, completionService, running);
+                }
+            }
+        } finally {
+            if (!running.isEmpty()) {
+                log.info("Cancelling {} remaining attempts of project {}/{}",
+                    running.size(), task.getFolderBName(), result.getZipFileName());
+                running.values().forEach(CancellationToken::cancel);
+            }
+            attemptPool.shutdown();
+            // The prompt must stay readable until cancelled attempts have let go of it
+            boolean terminated = false;
+            try {
+                terminated = attemptPool.awaitTermination(ATTEMPT_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+            } finally {
+                if (!terminated) {
+                    log.warn("Cancelled attempts of project {}/{} are still running",
+                        task.getFolderBName(), result.getZipFileName());
+                    // Their prompt memory must not be pooled for the next project while they may still read it
+                    baseEngine.discardContentArena(context);
+                }
+            }
+        }
+        result.setRetryCount(started - 1);
+        return best;
+    }
+
+    private void startAttempt(ProjectReviewTask task, ProjectReviewResult result, ExecutionContext context,
+                              PreProcessedData prompt, int number, CompletionService<ReviewAttempt> completionService,
+                              Map<Future<ReviewAttempt>, CancellationToken> running) {
+        log.info("Reviewing project: {}/{} (Attempt {}/{})",
+            task.getFolderBName(), result.getZipFileName(), number, MAX_RETRY_ATTEMPTS);
+        // Concurrent attempts get their own timings, processor params and cancellation
+        CancellationToken cancellationToken = new CancellationToken();
+        ProcessorConfig processorConfig = projectProcessorConfig();
+        if (context.getProcessorConfig().getCustomParams() != null) {
+            processorConfig.setCustomParams(new HashMap<>(context.getProcessorConfig().getCustomParams()));
+        }
+        // The last attempt is never cut short: its full review is recorded even with a low score.
+        // Each call gets its own detector, so a call escalated to the default model is watched
+        // afresh and the outcome is that of the last call
+        AtomicReference<ScoreStreamDetector> scoreDetector = new AtomicReference<>();
+        Supplier<IStreamListener> streamListeners = number < MAX_RETRY_ATTEMPTS && isEarlyAbortEnabled()
+                ? () -> {
+                    ScoreStreamDetector detector = new ScoreStreamDetector(MIN_VALID_SCORE);
+                    scoreDetector.set(detector);
+                    return detector;
+                }
+                : null;
+        ExecutionContext attemptContext = context.toBuilder()
+                .processorConfig(processorConfig)
+                .cancellationToken(cancellationToken)
+                .streamListeners(streamListeners)
+                .build();
+        Future<ReviewAttempt> future = completionService.submit(() -> {
+            ProcessResult processResult = baseEngine.invokePrepared(attemptContext, prompt);
+            Double score = processResult.isSuccess() ? ScoreExtractor.extractScore(processResult.getContent()) : null;
+            boolean aborted = scoreDetector.get() != null && scoreDetector.get().isAborted();
+            return new ReviewAttempt(number, processResult, score, aborted);
+        });
+        running.put(future, cancellationToken);
+    }
+
+    private static ReviewAttempt getAttempt(Future<ReviewAttempt> finished) throws InterruptedException {
+        try {
+            return finished.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Review attempt failed", e.getCause());
+        }
+    }
+
+    /**
+     * Processor config for batch project reviews; the report path depends on the score
+     */
+    private ProcessorConfig projectProcessorConfig() {
+        return ProcessorConfig.builder()
+                .processorType(properties.getProcessor().getType())
+                .outputFormat(properties.getProcessor().getOutputFormat())
+                .outputPath(null) // Will be set after getting score
+                .build();
+    }
+
+    /**
+     * Write the report as FolderBName-Score-ZipFileName.md and mark the result successful
+     */
+    private void writeReport(ProjectReviewTask task, ProjectReviewResult result, String content) throws IOException {
+        // Get ZIP file name without extension for report
+        String zipNameWithoutExt = ZipUtil.getProjectNameFromZip(task.getZipFilePath());
+
+        // Generate report filename: FolderBName-Score-ZipFileName.md
+        String reportFileName = task.getFolderBName() + "-" +
+            ScoreExtractor.formatScoreForFilename(result.getScore()) + "-" +
+            zipNameWithoutExt + ".md";
+        Path reportPath = Paths.get(properties.getProcessor().getOutputPath(), reportFileName);
+
+        // Write report with score in filename
+        Files.createDirectories(reportPath.getParent());
+        Files.writeString(reportPath, content);
+
+        result.setReportPath(reportPath);
+        result.setSuccess(true);
+    }
+
+    private boolean isBatchInferenceEnabled() {
+        return properties.getBatchInference() != null
+                && Boolean.TRUE.equals(properties.getBatchInference().getEnabled());
+    }
+
+    /**
+     * Review projects through a provider batch inference job instead of on-demand calls.
+     * Prompts are prepared for up to maxRequestsPerJob projects at a time, submitted as one
+     * job, and the outputs are mapped back to their projects by custom id.
+     *
+     * @return tasks that still need an on-demand review: projects that could not be prepared,
+     * have no output, or scored below {@link #MIN_VALID_SCORE} (on-demand review retries those)
+     */
+    private List<ProjectReviewTask> reviewWithBatchInference(List<ProjectReviewTask> tasks, BatchResult batchResult) {
+        AIReviewerProperties.BatchInference batchInference = properties.getBatchInference();
+        String provider = batchInference.getProvider() != null
+                ? batchInference.getProvider() : properties.getAi().getProvider();
+        Optional<IBatchAIService> batchService = baseEngine.getRegistry().getBatchAIService(provider);
+        if (batchService.isEmpty()) {
+            log.warn("No batch AI service registered for provider {}, reviewing on demand", provider);
+            return tasks;
+        }
+        int jobSize = Math.max(1, batchInference.getMaxRequestsPerJob());
+        List<ProjectReviewTask> remaining = new ArrayList<>();
+        for (int from = 0; from < tasks.size(); from += jobSize) {
+            List<ProjectReviewTask> jobTasks = tasks.subList(from, Math.min(tasks.size(), from + jobSize));
+            remaining.addAll(runBatchJob(batchService.get(), jobTasks, batchResult));
+        }
+        log.info("Batch inference reviewed {} of {} projects, {} left for on-demand review",
+                tasks.size() - remaining.size(), tasks.size(), remaining.size());
+        return remaining;
+    }
+
+    private List<ProjectReviewTask> runBatchJob(IBatchAIService batchService, List<ProjectReviewTask> tasks,
+                                                BatchResult batchResult) {
+        List<ProjectReviewTask> remaining = new ArrayList<>();
+        Map<String, ProjectReviewTask> tasksById = new LinkedHashMap<>();
+        Map<String, ExecutionContext> contextsById = new HashMap<>();
+        List<BatchRequest> requests = new ArrayList<>();
+        for (ProjectReviewTask task : tasks) {
+            Path extractedPath = null;
+            ExecutionContext context = null;
+            try {
+                extractedPath = ZipUtil.extractZip(task.getZipFilePath(), tempExtractDir);
+                context = buildProjectContext(extractedPath, properties.getAi(), projectProcessorConfig());
+                PreProcessedData prompt = baseEngine.prepareReview(context);
+                String customId = "project-" + requests.size();
+                tasksById.put(customId, task);
+                contextsById.put(customId, context);
+                requests.add(BatchRequest.builder().customId(customId).data(prompt).build());
+            } catch (Exception e) {
+                log.warn("Failed to prepare {}/{} for batch inference: {}", task.getFolderBName(),
+                        task.getZipFilePath().getFileName(), e.getMessage());
+                baseEngine.closeContentArena(context);
+                remaining.add(task);
+            } finally {
+                // The prompt holds everything the review needs, the extracted files can go
+                if (extractedPath != null) {
+                    try {
+                        ZipUtil.cleanupExtractedDir(extractedPath);
+                    } catch (Exception e) {
+                        log.warn("Failed to cleanup extracted directory {}", extractedPath, e);
+                    }
+                }
+            }
+        }
+        if (requests.isEmpty()) {
+            return remaining;
+        }
+
+        AIReviewerProperties.BatchInference batchInference = properties.getBatchInference();
+        Map<String, AIResponse> responses;
+        try {
+            log.info("Submitting batch job with {} projects to {}", requests.size(), batchService.getProviderName());
+            responses = batchService.execute(requests, properties.getAi(),
+                    Duration.ofSeconds(batchInference.getPollIntervalSeconds()),
+                    Duration.ofMinutes(batchInference.getMaxWaitMinutes()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            remaining.addAll(tasksById.values());
+            return remaining;
+        } catch (Exception e) {
+            log.error("Batch job failed, reviewing {} projects on demand", requests.size(), e);
+            remaining.addAll(tasksById.values());
+            return remaining;
+        } finally {
+            // The prompts have been written to the job, their off-heap content can go
+            contextsById.values().forEach(baseEngine::closeContentArena);
+        }
+
+        for (Map.Entry<String, ProjectReviewTask> entry : tasksById.entrySet()) {
+            ProjectReviewTask task = entry.getValue();
+            AIResponse response = responses.get(entry.getKey());
+            ProjectReviewResult result = response != null
+                    ? completeBatchReview(task, contextsById.get(entry.getKey()), response) : null;
+            if (result == null) {
+                remaining.add(task);
+                continue;
+            }
+            batchResult.addProjectResult(result);
+            log.info("Successfully reviewed: {} - {} (Score: {}, batch)",
+                    result.getFolderBName(), result.getZipFileName(), result.getScore());
+            appendToCompletedReviewsCsv(result);
+        }
+        return remaining;
+    }
+
+    /**
+     * Build the review of one project from its batch output
+     *
+     * @return the result, or null if the review should be redone on demand
+     */
+    private ProjectReviewResult completeBatchReview(ProjectReviewTask task, ExecutionContext context, AIResponse response) {
+        ProjectReviewResult result = new ProjectReviewResult();
+        result.setFolderBName(task.getFolderBName());
+        result.setZipFileName(task.getZipFilePath().getFileName().toString());
+        result.setStartTime(context.getStartTime());
+        result.setRetryCount(0);
+        try {
+            ProcessResult processResult = baseEngine.completeReview(context, List.of(response));
+            if (!processResult.isSuccess()) {
+                log.warn("Batch review of {} could not be processed: {}", result.getProjectName(),
+                        processResult.getErrorMessage());
+                return null;
+            }
+            Double score = ScoreExtractor.extractScore(processResult.getContent());
+            if (score == null || score < MIN_VALID_SCORE) {
+                log.warn("⚠️ Project {} received low score from batch: {}. Reviewing on demand...",
+                        result.getProjectName(), score);
+                return null;
+            }
+            result.setScore(score);
+            result.setOverallComment(ScoreExtractor.extractOverallComment(processResult.getContent()));
+            writeReport(task, result, processResult.getContent());
+        } catch (Exception e) {
+            log.warn("Failed to complete batch review of {}: {}", result.getProjectName(), e.getMessage());
+            return null;
+        }
+        result.setEndTime(LocalDateTime.now());
+        return result;
+    }
+
 
 
     /**
@@ -812,6 +1201,45 @@ public class HackathonAIEngineV2 {
         }
     }
 
+    /**
+     * Outcome of one review attempt of a project
+     */
+    private static class ReviewAttempt {
+        private final int number;
+        private final ProcessResult processResult;
+        private final Double score;
+        /**
+         * Cancelled once its low score was streamed; the content is only the beginning of the review
+         */
+        private final boolean aborted;
+
+        private ReviewAttempt(int number, ProcessResult processResult, Double score, boolean aborted) {
+            this.number = number;
+            this.processResult = processResult;
+            this.score = score;
+            this.aborted = aborted;
+        }
+
+        private boolean isValidScore() {
+            // Valid: not 0 and >= MIN_VALID_SCORE
+            return processResult.isSuccess() && score != null && score > 0 && score >= MIN_VALID_SCORE;
+        }
+
+        /**
+         * Outcome rank: a valid score, then a complete review with a low or no score, then a review
+         * cut short at its low score, then a failed call
+         */
+        private int rank() {
+            if (isValidScore()) {
+                return 3;
+            }
+            if (!processResult.isSuccess()) {
+                return 0;
+            }
+            return aborted ? 1 : 2;
+        }
+    }
+
     /**
      * Inner class for completed review record from CSV
      */
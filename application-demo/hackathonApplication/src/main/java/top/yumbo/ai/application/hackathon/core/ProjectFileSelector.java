@@ -0,0 +1,217 @@
+package top.yumbo.ai.application.hackathon.core;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import top.yumbo.ai.api.model.FileMetadata;
+import top.yumbo.ai.api.model.PreProcessedData;
+import top.yumbo.ai.common.token.TokenEstimator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Selects the files of a project that go into its prompt under a token budget.
+ * Files are ranked by importance (documentation, build manifests, entry points, import fan-in,
+ * non-test source, size) and taken greedily in rank order while they fit the budget.
+ * Fan-in uses the imports extracted by the parsers where there are any; the content of a file
+ * is read at most once, since released content is reloaded on every read.
+ */
+@Slf4j
+public class ProjectFileSelector {
+    private static final Set<String> MANIFEST_FILES = Set.of(
+            "pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "package.json",
+            "requirements.txt", "pyproject.toml", "setup.py", "go.mod", "cargo.toml",
+            "cmakelists.txt", "makefile", "dockerfile", "docker-compose.yml", "application.yml",
+            "application.properties");
+    private static final Set<String> ENTRY_POINT_NAMES = Set.of(
+            "main", "app", "application", "index", "server", "program", "manage", "cli");
+    private static final Pattern ENTRY_POINT_CONTENT = Pattern.compile(
+            "public\\s+static\\s+void\\s+main\\s*\\(|if\\s+__name__\\s*==\\s*['\"]__main__['\"]"
+                    + "|\\bfunc\\s+main\\s*\\(|@SpringBootApplication|\\bfn\\s+main\\s*\\(|\\bint\\s+main\\s*\\(");
+    private static final Pattern TEST_PATH = Pattern.compile(
+            "(^|/)(tests?|__tests__|spec)/|(Test|Tests|IT)\\.\\w+$|(^|/)test_[^/]+$|_test\\.\\w+$|\\.(test|spec)\\.\\w+$");
+    /**
+     * Import, require, include and using statements of the common languages
+     */
+    private static final Pattern IMPORT_LINE = Pattern.compile(
+            "^\\s*(?:import|from|#include|using|require|use)\\b.*$|\\brequire\\s*\\(.*$", Pattern.MULTILINE);
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final int tokenBudget;
+    private final TokenEstimator tokenEstimator;
+
+    public ProjectFileSelector(int tokenBudget, TokenEstimator tokenEstimator) {
+        this.tokenBudget = tokenBudget;
+        this.tokenEstimator = tokenEstimator;
+    }
+
+    /**
+     * Select files under the token budget; selected files keep their original order
+     */
+    public Selection select(List<PreProcessedData> files) {
+        Map<PreProcessedData, String> contents = new IdentityHashMap<>();
+        Map<PreProcessedData, Integer> tokens = new IdentityHashMap<>();
+        for (PreProcessedData file : files) {
+            tokens.put(file, file.getEstimatedTokens() != null
+                    ? file.getEstimatedTokens() : tokenEstimator.estimate(contentOf(file, contents)));
+        }
+        int total = tokens.values().stream().mapToInt(Integer::intValue).sum();
+        if (total <= tokenBudget) {
+            return new Selection(files, List.of(), total);
+        }
+
+        Map<String, Integer> fanIn = importFanIn(files, contents);
+        Map<PreProcessedData, Double> scores = new IdentityHashMap<>();
+        for (PreProcessedData file : files) {
+            scores.put(file, score(file, contentOf(file, contents), tokens.get(file),
+                    fanIn.getOrDefault(stemOf(file), 0)));
+        }
+        List<PreProcessedData> ranked = new ArrayList<>(files);
+        ranked.sort(Comparator.comparing((PreProcessedData file) -> scores.get(file)).reversed());
+
+        Set<PreProcessedData> chosen = Collections.newSetFromMap(new IdentityHashMap<>());
+        int used = 0;
+        for (PreProcessedData file : ranked) {
+            int fileTokens = tokens.get(file);
+            if (used + fileTokens <= tokenBudget) {
+                chosen.add(file);
+                used += fileTokens;
+            }
+        }
+        List<PreProcessedData> selected = new ArrayList<>();
+        List<PreProcessedData> omitted = new ArrayList<>();
+        for (PreProcessedData file : files) {
+            (chosen.contains(file) ? selected : omitted).add(file);
+        }
+        log.info("Selected {} of {} files ({} of {} tokens, budget {})",
+                selected.size(), files.size(), used, total, tokenBudget);
+        return new Selection(selected, omitted, used);
+    }
+
+    /**
+     * Importance score of a file; higher is more important
+     */
+    private double score(PreProcessedData file, String content, int fileTokens, int fanIn) {
+        String path = pathOf(file);
+        String name = file.getMetadata().getFileName() != null
+                ? file.getMetadata().getFileName().toLowerCase(Locale.ROOT) : "";
+        double score = 0;
+        if (name.startsWith("readme")) {
+            score += 100;
+        } else if (MANIFEST_FILES.contains(name)) {
+            score += 40;
+        }
+        if (ENTRY_POINT_NAMES.contains(stemOf(file).toLowerCase(Locale.ROOT))
+                || (content != null && ENTRY_POINT_CONTENT.matcher(content).find())) {
+            score += 50;
+        }
+        if (TEST_PATH.matcher(path).find()) {
+            score -= 30;
+        }
+        // Files imported by many others are central to the design
+        score += 10 * Math.min(fanIn, 5);
+        // Large files cost more of the budget for the same insight
+        score -= Math.min(30, fileTokens / 1000.0);
+        return score;
+    }
+
+    /**
+     * Number of files importing each file stem, from the import statements of every file
+     */
+    private Map<String, Integer> importFanIn(List<PreProcessedData> files, Map<PreProcessedData, String> contents) {
+        Set<String> stems = new HashSet<>();
+        for (PreProcessedData file : files) {
+            stems.add(stemOf(file));
+        }
+        Map<String, Integer> fanIn = new HashMap<>();
+        for (PreProcessedData file : files) {
+            List<String> importLines = importsOf(file, contents);
+            String ownStem = stemOf(file);
+            Set<String> imported = new HashSet<>();
+            for (String importLine : importLines) {
+                Matcher identifier = IDENTIFIER.matcher(importLine);
+                while (identifier.find()) {
+                    String token = identifier.group();
+                    if (!token.equals(ownStem) && stems.contains(token)) {
+                        imported.add(token);
+                    }
+                }
+            }
+            imported.forEach(stem -> fanIn.merge(stem, 1, Integer::sum));
+        }
+        return fanIn;
+    }
+
+    /**
+     * Imports extracted by the file's parser, or the import statements found in its content
+     */
+    private static List<String> importsOf(PreProcessedData file, Map<PreProcessedData, String> contents) {
+        if (file.getContext() != null && file.getContext().get("astInfo") instanceof Map<?, ?> astInfo
+                && astInfo.get("imports") instanceof List<?> parsed && !parsed.isEmpty()) {
+            return parsed.stream().map(String::valueOf).toList();
+        }
+        String content = contentOf(file, contents);
+        if (content == null) {
+            return List.of();
+        }
+        List<String> importLines = new ArrayList<>();
+        Matcher line = IMPORT_LINE.matcher(content);
+        while (line.find()) {
+            importLines.add(line.group());
+        }
+        return importLines;
+    }
+
+    /**
+     * Content of the file, read once per selection
+     */
+    private static String contentOf(PreProcessedData file, Map<PreProcessedData, String> contents) {
+        if (!contents.containsKey(file)) {
+            contents.put(file, file.getContent());
+        }
+        return contents.get(file);
+    }
+
+    private static String stemOf(PreProcessedData file) {
+        String name = file.getMetadata().getFileName();
+        if (name == null) {
+            return "";
+        }
+        int dot = name.indexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static String pathOf(PreProcessedData file) {
+        FileMetadata metadata = file.getMetadata();
+        Path path = metadata.getFilePath();
+        String value = path != null ? path.toString() : metadata.getFileName();
+        return value != null ? value.replace('\\', '/') : "";
+    }
+
+    /**
+     * Files selected for the prompt and files left out
+     */
+    @Getter
+    public static class Selection {
+        private final List<PreProcessedData> selected;
+        private final List<PreProcessedData> omitted;
+        private final int selectedTokens;
+
+        public Selection(List<PreProcessedData> selected, List<PreProcessedData> omitted, int selectedTokens) {
+            this.selected = selected;
+            this.omitted = omitted;
+            this.selectedTokens = selectedTokens;
+        }
+    }
+}
@@ -4,8 +4,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * Anti-cheat filter to remove misleading prompts from code comments
@@ -29,43 +29,37 @@ public class AntiCheatFilter {
             "very.*?innovative", "must.*?score", "should.*?score"
     );
 
-    // Comment patterns for various languages
-    private static final List<Pattern> COMMENT_PATTERNS = Arrays.asList(
-            // Java/JavaScript/C/C++ style: // and /* */
-            Pattern.compile("//.*?(?=\\n|$)", Pattern.DOTALL),
-            Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL),
-            // Python style: #
-            Pattern.compile("#.*?(?=\\n|$)", Pattern.DOTALL),
-            // HTML/XML style: <!-- -->
-            Pattern.compile("<!--.*?-->", Pattern.DOTALL)
+    // Rules for prompt injection attempts: literal terms joined by .*?
+    static final List<String> INJECTION_RULES = Arrays.asList(
+            // Direct scoring manipulation
+            "给.*?高分", "打.*?高分", "满分", "加分", "评.*?高分",
+            "give.*?high.*?score", "rate.*?high", "full.*?mark",
+            // Quality exaggeration
+            "这是.*?好项目", "这是.*?优秀", "非常.*?创新", "极其.*?优秀",
+            "excellent.*?project", "perfect.*?implementation", "very.*?innovative",
+            // Instruction to reviewer
+            "请.*?评", "务必.*?分", "一定要.*?分", "必须.*?分",
+            "please.*?score", "must.*?score", "should.*?score",
+            // Role manipulation
+            "你.*?专家", "作为.*?评审", "你.*?评分",
+            "you.*?expert", "as.*?reviewer", "you.*?score"
     );
 
-    // Pattern to detect prompt injection attempts in comments
-    private static final Pattern PROMPT_INJECTION_PATTERN;
-
-    static {
-        // Combine all suspicious keywords into one pattern
-        List<String> allKeywords = Arrays.asList(
-                // Direct scoring manipulation
-                "给.*?高分", "打.*?高分", "满分", "加分", "评.*?高分",
-                "give.*?high.*?score", "rate.*?high", "full.*?mark",
-                // Quality exaggeration
-                "这是.*?好项目", "这是.*?优秀", "非常.*?创新", "极其.*?优秀",
-                "excellent.*?project", "perfect.*?implementation", "very.*?innovative",
-                // Instruction to reviewer
-                "请.*?评", "务必.*?分", "一定要.*?分", "必须.*?分",
-                "please.*?score", "must.*?score", "should.*?score",
-                // Role manipulation
-                "你.*?专家", "作为.*?评审", "你.*?评分",
-                "you.*?expert", "as.*?reviewer", "you.*?score"
-        );
+    /**
+     * Maximum characters between the terms of a rule; farther apart they are unrelated words
+     */
+    static final int MAX_KEYWORD_GAP = 40;
 
-        String patternStr = String.join("|", allKeywords);
-        PROMPT_INJECTION_PATTERN = Pattern.compile(
-                "(" + patternStr + ")",
-                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE
-        );
-    }
+    /**
+     * Matches injection rules in comments and arbitrary content in a single pass, linear in the
+     * input length; a backtracking regex over the rules is quadratic on crafted input
+     */
+    private static final KeywordAutomaton INJECTION_MATCHER =
+            KeywordAutomaton.compile(INJECTION_RULES, MAX_KEYWORD_GAP);
+
+    // Files without string literals, whose quotes are prose
+    private static final Set<String> PROSE_EXTENSIONS = Set.of(
+            "md", "markdown", "txt", "rst", "adoc", "html", "htm", "xml", "svg");
 
     /**
      * Filter content to remove suspicious comments that might manipulate AI scoring
@@ -74,69 +68,77 @@ public class AntiCheatFilter {
      * @return Filtered content with suspicious comments removed
      */
     public static String filterSuspiciousContent(String content, String filePath) {
+        return filter(content, filePath).getContent();
+    }
+
+    /**
+     * Filter content and count its comments in a single pass: comments are found by
+     * {@link CommentLexer} and checked for injection rules without being copied.
+     * Content without suspicious comments is returned as is.
+     * @param content Original code content
+     * @param filePath File path for logging; its extension tells prose from code
+     */
+    public static FilterResult filter(String content, String filePath) {
+        return scan(content, filePath, true);
+    }
+
+    private static FilterResult scan(String content, String filePath, boolean sanitize) {
         if (content == null || content.isEmpty()) {
-            return content;
+            return new FilterResult(content, 0, 0);
         }
 
-        String originalContent = content;
+        CommentLexer lexer = new CommentLexer(content, !isProse(filePath));
+        StringBuilder sb = null;
+        int last = 0;
+        int totalCount = 0;
         int removedCount = 0;
-
-        // Extract and check all comments
-        for (Pattern commentPattern : COMMENT_PATTERNS) {
-            Matcher matcher = commentPattern.matcher(content);
-            StringBuffer sb = new StringBuffer();
-
-            while (matcher.find()) {
-                String comment = matcher.group();
-
-                // Check if comment contains suspicious keywords
-                if (containsSuspiciousContent(comment)) {
-                    // Replace with a sanitized comment
-                    String replacement = getSanitizedComment(comment);
-                    matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
-                    removedCount++;
-                    log.warn("Suspicious comment detected and sanitized in file: {} - Comment: {}",
-                            filePath, comment.substring(0, Math.min(50, comment.length())));
-                } else {
-                    matcher.appendReplacement(sb, Matcher.quoteReplacement(comment));
-                }
+        while (lexer.next()) {
+            totalCount++;
+            if (!INJECTION_MATCHER.matches(content, lexer.start(), lexer.end())) {
+                continue;
+            }
+            removedCount++;
+            if (!sanitize) {
+                continue;
             }
-            matcher.appendTail(sb);
-            content = sb.toString();
+            if (sb == null) {
+                sb = new StringBuilder(content.length());
+            }
+            // Replace with a sanitized comment
+            sb.append(content, last, lexer.start()).append(getSanitizedComment(lexer.style()));
+            last = lexer.end();
+            log.warn("Suspicious comment detected and sanitized in file: {} - Comment: {}",
+                    filePath, content.substring(lexer.start(), Math.min(lexer.start() + 50, lexer.end())));
         }
 
-        if (removedCount > 0) {
+        if (sb != null) {
             log.info("Anti-cheat filter applied to {}: {} suspicious comment(s) sanitized",
                     filePath, removedCount);
+            content = sb.append(content, last, content.length()).toString();
         }
 
-        return content;
+        return new FilterResult(content, removedCount, totalCount);
     }
 
-    /**
-     * Check if content contains suspicious keywords
-     */
-    private static boolean containsSuspiciousContent(String content) {
-        Matcher matcher = PROMPT_INJECTION_PATTERN.matcher(content);
-        return matcher.find();
+    private static boolean isProse(String filePath) {
+        if (filePath == null) {
+            return false;
+        }
+        int dot = filePath.lastIndexOf('.');
+        return dot >= 0 && PROSE_EXTENSIONS.contains(filePath.substring(dot + 1).toLowerCase(Locale.ROOT));
     }
 
     /**
      * Get sanitized version of a comment
      * Keep the comment structure but remove suspicious content
      */
-    private static String getSanitizedComment(String comment) {
-        // Determine comment style
-        if (comment.startsWith("//")) {
-            return "// [Comment removed by anti-cheat filter]";
-        } else if (comment.startsWith("/*")) {
-            return "/* [Comment removed by anti-cheat filter] */";
-        } else if (comment.startsWith("#")) {
-            return "# [Comment removed by anti-cheat filter]";
-        } else if (comment.startsWith("<!--")) {
-            return "<!-- [Comment removed by anti-cheat filter] -->";
-        }
-        return "[Comment removed by anti-cheat filter]";
+    private static String getSanitizedComment(CommentLexer.Style style) {
+        return switch (style) {
+            case LINE -> "// [Comment removed by anti-cheat filter]";
+            case BLOCK -> "/* [Comment removed by anti-cheat filter] */";
+            case HASH -> "# [Comment removed by anti-cheat filter]";
+            case HTML -> "<!-- [Comment removed by anti-cheat filter] -->";
+        };
     }
 
     /**
@@ -166,11 +168,7 @@ public class AntiCheatFilter {
         }
 
         // Check for excessive use of scoring-related terms
-        Matcher matcher = PROMPT_INJECTION_PATTERN.matcher(content);
-        int matchCount = 0;
-        while (matcher.find()) {
-            matchCount++;
-        }
+        int matchCount = INJECTION_MATCHER.count(content);
 
         // If more than 5 suspicious patterns found, likely an injection attempt
         return matchCount > 5;
@@ -180,24 +178,42 @@ public class AntiCheatFilter {
      * Get statistics about suspicious content
      */
     public static FilterStatistics analyzeContent(String content) {
+        FilterResult result = scan(content, null, false);
         FilterStatistics stats = new FilterStatistics();
+        stats.totalComments = result.getTotalComments();
+        stats.suspiciousComments = result.getSanitizedComments();
+        return stats;
+    }
 
-        if (content == null || content.isEmpty()) {
-            return stats;
+    /**
+     * Filtered content with the number of comments found and sanitized in it
+     */
+    public static class FilterResult {
+        private final String content;
+        private final int sanitizedComments;
+        private final int totalComments;
+
+        public FilterResult(String content, int sanitizedComments, int totalComments) {
+            this.content = content;
+            this.sanitizedComments = sanitizedComments;
+            this.totalComments = totalComments;
         }
 
-        // Count comments
-        for (Pattern commentPattern : COMMENT_PATTERNS) {
-            Matcher matcher = commentPattern.matcher(content);
-            while (matcher.find()) {
-                stats.totalComments++;
-                if (containsSuspiciousContent(matcher.group())) {
-                    stats.suspiciousComments++;
-                }
-            }
+        public String getContent() {
+            return content;
         }
 
-        return stats;
+        public int getSanitizedComments() {
+            return sanitizedComments;
+        }
+
+        public int getTotalComments() {
+            return totalComments;
+        }
+
+        public boolean hasSuspiciousContent() {
+            return sanitizedComments > 0;
+        }
     }
 
     /**
@@ -0,0 +1,203 @@
+package top.yumbo.ai.application.hackathon.util;
+
+/**
+ * Single-pass lexer finding the comments of source and markup files:
+ * {@code //} and {@code #} line comments, {@code /* *}{@code /} blocks and {@code <!-- -->}.
+ * String literals are skipped so comment markers inside them are not mistaken for comments;
+ * quoted strings end on their line, triple-quoted and backtick strings may span lines.
+ * An unterminated string or an apostrophe inside a word does not start a string, so a stray
+ * quote cannot hide the comments after it; prose and markup are lexed without string literals.
+ * Every character is scanned a bounded number of times, so lexing is linear in the text length.
+ * The lexer is language-agnostic, so e.g. a {@code #} heading or {@code #include} counts as a comment.
+ */
+public final class CommentLexer {
+    private static final String DOUBLE_QUOTE = "\"";
+    private static final String SINGLE_QUOTE = "'";
+    private static final String BACKTICK = "`";
+    private static final String TRIPLE_DOUBLE_QUOTE = "\"\"\"";
+    private static final String TRIPLE_SINGLE_QUOTE = "'''";
+    /**
+     * Comment style, by its opening marker
+     */
+    public enum Style {
+        LINE("//"), BLOCK("/*"), HASH("#"), HTML("<!--");
+
+        private final String marker;
+
+        Style(String marker) {
+            this.marker = marker;
+        }
+
+        public String getMarker() {
+            return marker;
+        }
+    }
+
+    private final CharSequence text;
+    private final int length;
+    private final boolean stringLiterals;
+    /**
+     * Quotes before this index do not start strings: an unterminated string was looked for up to here
+     */
+    private int plainUntil;
+    private int position;
+    private int start;
+    private int end;
+    private Style style;
+
+    /**
+     * Lexer for source code, skipping string literals
+     */
+    public CommentLexer(CharSequence text) {
+        this(text, true);
+    }
+
+    /**
+     * @param stringLiterals whether quotes start string literals; false for prose and markup
+     */
+    public CommentLexer(CharSequence text, boolean stringLiterals) {
+        this.text = text;
+        this.length = text.length();
+        this.stringLiterals = stringLiterals;
+    }
+
+    /**
+     * Advance to the next comment
+     *
+     * @return false when there are no more comments
+     */
+    public boolean next() {
+        while (position < length) {
+            char c = text.charAt(position);
+            switch (c) {
+                case '/' -> {
+                    char following = charAt(position + 1);
+                    if (following == '/') {
+                        return comment(Style.LINE, lineEnd(position + 2));
+                    }
+                    if (following == '*') {
+                        return comment(Style.BLOCK, closingEnd(position + 2, "*/"));
+                    }
+                    position++;
+                }
+                case '#' -> {
+                    return comment(Style.HASH, lineEnd(position + 1));
+                }
+                case '<' -> {
+                    if (startsWith(position, "<!--")) {
+                        return comment(Style.HTML, closingEnd(position + 4, "-->"));
+                    }
+                    position++;
+                }
+                case '"', '\'', '`' -> position = startsString(c) ? skipString(c) : position + 1;
+                default -> position++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Start index of the current comment, including its marker
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * End index (exclusive) of the current comment; a line comment ends before its line break
+     */
+    public int end() {
+        return end;
+    }
+
+    public Style style() {
+        return style;
+    }
+
+    private boolean comment(Style commentStyle, int commentEnd) {
+        style = commentStyle;
+        start = position;
+        end = commentEnd;
+        position = commentEnd;
+        return true;
+    }
+
+    private boolean startsString(char quote) {
+        if (!stringLiterals || position < plainUntil) {
+            return false;
+        }
+        // An apostrophe inside a word, as in "don't"
+        return quote != '\'' || position == 0 || !Character.isLetterOrDigit(text.charAt(position - 1));
+    }
+
+    private int skipString(char quote) {
+        return switch (quote) {
+            case '"' -> startsWith(position, TRIPLE_DOUBLE_QUOTE)
+                    ? skipString(position + 3, TRIPLE_DOUBLE_QUOTE, true)
+                    : skipString(position + 1, DOUBLE_QUOTE, false);
+            case '\'' -> startsWith(position, TRIPLE_SINGLE_QUOTE)
+                    ? skipString(position + 3, TRIPLE_SINGLE_QUOTE, true)
+                    : skipString(position + 1, SINGLE_QUOTE, false);
+            default -> skipString(position + 1, BACKTICK, true);
+        };
+    }
+
+    /**
+     * Index after the closing delimiter, honouring backslash escapes; when the string is not
+     * closed (on its line, for a single-line string) only its opening quote is skipped
+     */
+    private int skipString(int from, String delimiter, boolean multiline) {
+        int i = from;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '\n' && !multiline) {
+                break;
+            } else if (startsWith(i, delimiter)) {
+                return i + delimiter.length();
+            } else {
+                i++;
+            }
+        }
+        plainUntil = Math.max(plainUntil, Math.min(i, length));
+        return position + 1;
+    }
+
+    private int lineEnd(int from) {
+        for (int i = from; i < length; i++) {
+            if (text.charAt(i) == '\n') {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Index after the closing marker; an unclosed comment runs to the end of the text
+     */
+    private int closingEnd(int from, String closing) {
+        for (int i = from; i <= length - closing.length(); i++) {
+            if (startsWith(i, closing)) {
+                return i + closing.length();
+            }
+        }
+        return length;
+    }
+
+    private boolean startsWith(int at, String prefix) {
+        if (at + prefix.length() > length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(at + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private char charAt(int index) {
+        return index < length ? text.charAt(index) : '\0';
+    }
+}
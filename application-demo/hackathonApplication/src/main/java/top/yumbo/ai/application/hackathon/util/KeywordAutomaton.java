@@ -0,0 +1,244 @@
+package top.yumbo.ai.application.hackathon.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Case-insensitive matcher for keyword rules such as {@code "give.*?high.*?score"}.
+ * A rule is a sequence of literal terms joined by {@code .*?}; it matches when its terms occur
+ * in order on one line, each at most {@code maxGap} characters after the previous one.
+ * All terms are found in a single pass with an Aho–Corasick automaton, so matching is linear
+ * in the text length whatever the input.
+ */
+public final class KeywordAutomaton {
+    private static final Pattern RULE_SEPARATOR = Pattern.compile(Pattern.quote(".*?"));
+
+    /**
+     * Sorted transition characters and target states of each state
+     */
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    /**
+     * Terms ending in each state, including those ending in its failure states
+     */
+    private final int[][] outputs;
+    private final int[] termLengths;
+    /**
+     * Stages of rules each term completes, as indexes into the stage table
+     */
+    private final int[][] termStages;
+    /**
+     * Stage table: index of the stage within its rule and the rule's last stage index
+     */
+    private final int[] stageIndex;
+    private final int[] stageLast;
+    private final int maxGap;
+
+    private KeywordAutomaton(List<char[]> trieChars, List<int[]> trieTargets, int[] failure, int[][] outputs,
+                             int[] termLengths, int[][] termStages, int[] stageIndex, int[] stageLast, int maxGap) {
+        this.transitionChars = trieChars.toArray(new char[0][]);
+        this.transitionTargets = trieTargets.toArray(new int[0][]);
+        this.failure = failure;
+        this.outputs = outputs;
+        this.termLengths = termLengths;
+        this.termStages = termStages;
+        this.stageIndex = stageIndex;
+        this.stageLast = stageLast;
+        this.maxGap = maxGap;
+    }
+
+    /**
+     * Compile rules of literal terms joined by {@code .*?}
+     *
+     * @param maxGap maximum number of characters between consecutive terms of a rule
+     */
+    public static KeywordAutomaton compile(List<String> rules, int maxGap) {
+        Map<String, Integer> termIds = new LinkedHashMap<>();
+        List<int[]> ruleTerms = new ArrayList<>();
+        for (String rule : rules) {
+            String[] terms = RULE_SEPARATOR.split(rule.toLowerCase(Locale.ROOT));
+            int[] ids = new int[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i].isEmpty()) {
+                    throw new IllegalArgumentException("Empty term in keyword rule: " + rule);
+                }
+                ids[i] = termIds.computeIfAbsent(terms[i], key -> termIds.size());
+            }
+            ruleTerms.add(ids);
+        }
+
+        // Stage table: one entry per term of every rule
+        int stageCount = ruleTerms.stream().mapToInt(ids -> ids.length).sum();
+        int[] stageIndex = new int[stageCount];
+        int[] stageLast = new int[stageCount];
+        List<List<Integer>> stagesByTerm = new ArrayList<>();
+        termIds.forEach((term, id) -> stagesByTerm.add(new ArrayList<>()));
+        int stage = 0;
+        for (int[] ids : ruleTerms) {
+            int first = stage;
+            for (int i = 0; i < ids.length; i++, stage++) {
+                stageIndex[stage] = i;
+                stageLast[stage] = first + ids.length - 1;
+                stagesByTerm.get(ids[i]).add(stage);
+            }
+        }
+        int[][] termStages = new int[stagesByTerm.size()][];
+        for (int i = 0; i < termStages.length; i++) {
+            termStages[i] = stagesByTerm.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Trie of the terms
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(new ArrayList<>());
+        int[] termLengths = new int[termIds.size()];
+        for (Map.Entry<String, Integer> term : termIds.entrySet()) {
+            int state = 0;
+            for (char c : term.getKey().toCharArray()) {
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(c, next);
+                    trie.add(new TreeMap<>());
+                    ends.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            ends.get(state).add(term.getValue());
+            termLengths[term.getValue()] = term.getKey().length();
+        }
+
+        List<char[]> trieChars = new ArrayList<>();
+        List<int[]> trieTargets = new ArrayList<>();
+        for (TreeMap<Character, Integer> transitions : trie) {
+            char[] chars = new char[transitions.size()];
+            int[] targets = new int[transitions.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                chars[i] = transition.getKey();
+                targets[i++] = transition.getValue();
+            }
+            trieChars.add(chars);
+            trieTargets.add(targets);
+        }
+
+        // Failure links and merged outputs, breadth first
+        int[] failure = new int[trie.size()];
+        int[][] outputs = new int[trie.size()][];
+        outputs[0] = new int[0];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : trieTargets.get(0)) {
+            failure[child] = 0;
+            outputs[child] = ends.get(child).stream().mapToInt(Integer::intValue).toArray();
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            char[] chars = trieChars.get(state);
+            int[] targets = trieTargets.get(state);
+            for (int i = 0; i < chars.length; i++) {
+                int child = targets[i];
+                int fallback = failure[state];
+                int next;
+                while ((next = step(trieChars.get(fallback), trieTargets.get(fallback), chars[i])) < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = next >= 0 ? next : 0;
+                int[] own = ends.get(child).stream().mapToInt(Integer::intValue).toArray();
+                int[] inherited = outputs[failure[child]];
+                int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+                System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+                outputs[child] = merged;
+                queue.add(child);
+            }
+        }
+        return new KeywordAutomaton(trieChars, trieTargets, failure, outputs, termLengths, termStages,
+                stageIndex, stageLast, maxGap);
+    }
+
+    /**
+     * Whether any rule matches within {@code text[from, to)}
+     */
+    public boolean matches(CharSequence text, int from, int to) {
+        return scan(text, from, to, true) > 0;
+    }
+
+    /**
+     * Whether any rule matches the text
+     */
+    public boolean matches(CharSequence text) {
+        return text != null && matches(text, 0, text.length());
+    }
+
+    /**
+     * Number of non-overlapping rule matches in the text, scanning left to right
+     */
+    public int count(CharSequence text) {
+        return text == null ? 0 : scan(text, 0, text.length(), false);
+    }
+
+    private int scan(CharSequence text, int from, int to, boolean stopAtFirst) {
+        // Latest and previous end of a hit completing each stage, -1 when none
+        int[] latest = new int[stageIndex.length];
+        int[] previous = new int[stageIndex.length];
+        Arrays.fill(latest, -1);
+        Arrays.fill(previous, -1);
+        int lastNewline = from - 1;
+        int state = 0;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                lastNewline = i;
+            }
+            c = Character.toLowerCase(c);
+            int next;
+            while ((next = step(transitionChars[state], transitionTargets[state], c)) < 0 && state != 0) {
+                state = failure[state];
+            }
+            state = next >= 0 ? next : 0;
+            for (int term : outputs[state]) {
+                int end = i + 1;
+                int start = end - termLengths[term];
+                for (int stage : termStages[term]) {
+                    if (stageIndex[stage] > 0) {
+                        int before = latest[stage - 1] <= start ? latest[stage - 1] : previous[stage - 1];
+                        // The previous term must end on this line, close enough before this one
+                        if (before < 0 || before - 1 <= lastNewline || start - before > maxGap) {
+                            continue;
+                        }
+                    }
+                    if (stage == stageLast[stage]) {
+                        count++;
+                        if (stopAtFirst) {
+                            return count;
+                        }
+                        Arrays.fill(latest, -1);
+                        Arrays.fill(previous, -1);
+                        break;
+                    }
+                    if (latest[stage] != end) {
+                        previous[stage] = latest[stage];
+                        latest[stage] = end;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int step(char[] chars, int[] targets, char c) {
+        int index = Arrays.binarySearch(chars, c);
+        return index >= 0 ? targets[index] : -1;
+    }
+}
@@ -12,13 +12,13 @@ import java.util.regex.Pattern;
 public class ScoreExtractor {
 
     // Pattern to match total score like "【Total Score】: 85/100 points" or "Total Score: 85/100"
-    private static final Pattern TOTAL_SCORE_PATTERN = Pattern.compile(
+    static final Pattern TOTAL_SCORE_PATTERN = Pattern.compile(
         "(?:【)?Total Score(?:】)?\\s*[:\\：]\\s*(\\d+(?:\\.\\d+)?)/100",
         Pattern.CASE_INSENSITIVE
     );
 
     // Pattern for Chinese format "【总分】: 85/100 分"
-    private static final Pattern CHINESE_SCORE_PATTERN = Pattern.compile(
+    static final Pattern CHINESE_SCORE_PATTERN = Pattern.compile(
         "【?总分】?\\s*[:\\：]\\s*(\\d+(?:\\.\\d+)?)/100",
         Pattern.CASE_INSENSITIVE
     );
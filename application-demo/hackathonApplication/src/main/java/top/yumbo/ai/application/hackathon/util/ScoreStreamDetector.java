@@ -0,0 +1,86 @@
+package top.yumbo.ai.application.hackathon.util;
+
+import lombok.extern.slf4j.Slf4j;
+import top.yumbo.ai.api.ai.IStreamListener;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Watches a streamed review for its total score and cancels the stream as soon as the score
+ * is below the threshold, so a review that is going to be retried stops generating at once.
+ * Only the total score lines of {@link ScoreExtractor} are trusted, not its loose "Score: N"
+ * fallback, which also matches sub-scores. Only a short tail of the stream is kept and
+ * rescanned, so each delta costs time proportional to its own length.
+ * A detector watches one stream; create a new one per request.
+ */
+@Slf4j
+public class ScoreStreamDetector implements IStreamListener {
+    /**
+     * Characters kept from earlier deltas, enough for a score line split across deltas
+     */
+    private static final int TAIL_CHARS = 64;
+
+    private final double minValidScore;
+    private final StringBuilder tail = new StringBuilder();
+    private Double score;
+    private boolean aborted;
+
+    /**
+     * @param minValidScore scores below this (or zero) abort the stream
+     */
+    public ScoreStreamDetector(double minValidScore) {
+        this.minValidScore = minValidScore;
+    }
+
+    @Override
+    public boolean onDelta(String delta) {
+        if (score != null) {
+            return true;
+        }
+        tail.append(delta);
+        score = findScore(ScoreExtractor.CHINESE_SCORE_PATTERN);
+        if (score == null) {
+            score = findScore(ScoreExtractor.TOTAL_SCORE_PATTERN);
+        }
+        if (score == null) {
+            if (tail.length() > TAIL_CHARS) {
+                tail.delete(0, tail.length() - TAIL_CHARS);
+            }
+            return true;
+        }
+        tail.setLength(0);
+        if (score > 0 && score >= minValidScore) {
+            return true;
+        }
+        log.info("Streamed review scored {}, below {}: cancelling the rest of the response", score, minValidScore);
+        aborted = true;
+        return false;
+    }
+
+    /**
+     * Total score seen so far, or null
+     */
+    public Double getScore() {
+        return score;
+    }
+
+    /**
+     * Whether the stream was cancelled for a low score; the response then holds only its beginning
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    private Double findScore(Pattern pattern) {
+        Matcher matcher = pattern.matcher(tail);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package top.yumbo.ai.application.hackathon.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Worst-case and throughput benchmark for the prompt-injection detector of {@link AntiCheatFilter}.
+ * Compares {@link KeywordAutomaton} with the backtracking regex it replaced on crafted inputs
+ * of growing size: the regex time grows quadratically, the automaton time linearly.
+ * <p>
+ * Usage: {@code AntiCheatFilterBenchmark [sourceDir] [maxKilobytes]}
+ * <ul>
+ *     <li>sourceDir: directory of source files used for the throughput run (default ".")</li>
+ *     <li>maxKilobytes: largest crafted input (default 1024)</li>
+ * </ul>
+ */
+public class AntiCheatFilterBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+    /**
+     * The regex is not run on larger inputs once a single run takes this long
+     */
+    private static final long REGEX_CUTOFF_MS = 2000;
+
+    public static void main(String[] args) throws IOException {
+        Path sourceDir = Paths.get(args.length > 0 ? args[0] : ".");
+        int maxKilobytes = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+
+        Pattern regex = Pattern.compile("(" + String.join("|", AntiCheatFilter.INJECTION_RULES) + ")",
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        KeywordAutomaton automaton = KeywordAutomaton.compile(AntiCheatFilter.INJECTION_RULES,
+                AntiCheatFilter.MAX_KEYWORD_GAP);
+
+        worstCase(regex, automaton, maxKilobytes);
+        throughput(regex, automaton, sourceDir);
+    }
+
+    /**
+     * Crafted single-line inputs that open a rule many times and never complete it
+     */
+    private static Map<String, String> craftedUnits() {
+        Map<String, String> units = new LinkedHashMap<>();
+        units.put("you-no-score", "you ");
+        units.put("give-high", "give high ");
+        units.put("cjk-open", "给你请");
+        units.put("comment-body", "/* as a very please ");
+        return units;
+    }
+
+    private static void worstCase(Pattern regex, KeywordAutomaton automaton, int maxKilobytes) {
+        System.out.println("== Worst case: one crafted line, time per detection ==");
+        System.out.printf("%-14s %10s %14s %14s%n", "input", "size", "regex ms", "automaton ms");
+        for (Map.Entry<String, String> unit : craftedUnits().entrySet()) {
+            boolean regexStopped = false;
+            for (int kilobytes = 4; kilobytes <= maxKilobytes; kilobytes *= 2) {
+                String input = unit.getValue().repeat(kilobytes * 1024 / unit.getValue().length());
+                String regexMs = "skipped";
+                if (!regexStopped) {
+                    long elapsed = time(input, content -> count(regex, content), 1);
+                    regexMs = String.valueOf(elapsed / 1_000_000);
+                    regexStopped = elapsed / 1_000_000 > REGEX_CUTOFF_MS;
+                }
+                long automatonNs = time(input, automaton::count, MEASURED_ROUNDS);
+                System.out.printf("%-14s %8d KB %14s %14.2f%n", unit.getKey(), kilobytes, regexMs,
+                        automatonNs / 1e6);
+            }
+        }
+        long start = System.nanoTime();
+        AntiCheatFilter.filter("/* " + "you ".repeat(256 * 1024) + "*/", "Crafted.java");
+        System.out.printf("filter() on a 1 MB crafted comment: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Detection speed over every source file below the directory
+     */
+    private static void throughput(Pattern regex, KeywordAutomaton automaton, Path sourceDir) throws IOException {
+        List<String> contents = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(sourceDir)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                String name = path.getFileName().toString();
+                if (name.matches(".*\\.(java|py|js|ts|md|yml|yaml|xml|json|txt)$")) {
+                    try {
+                        contents.add(Files.readString(path, StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        // not UTF-8, skip
+                    }
+                }
+            }
+        }
+        long chars = contents.stream().mapToLong(String::length).sum();
+        System.out.printf("== Throughput over %d files, %d chars ==%n", contents.size(), chars);
+        report("regex", contents, chars, content -> count(regex, content));
+        report("automaton", contents, chars, automaton::count);
+        report("filter()", contents, chars, content -> AntiCheatFilter.filter(content, "File.java").getTotalComments());
+    }
+
+    private static void report(String name, List<String> contents, long chars, ToIntFunction<String> detect) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            contents.forEach(detect::applyAsInt);
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            contents.forEach(detect::applyAsInt);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-10s %10.1f Mchars/s%n", name, chars * MEASURED_ROUNDS / seconds / 1e6);
+    }
+
+    /**
+     * Average nanoseconds of a detection over the given number of rounds
+     */
+    private static long time(String input, ToIntFunction<String> detect, int rounds) {
+        detect.applyAsInt(input);
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            detect.applyAsInt(input);
+        }
+        return (System.nanoTime() - start) / rounds;
+    }
+
+    private static int count(Pattern regex, String content) {
+        Matcher matcher = regex.matcher(content);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}